@@ -7,14 +7,13 @@ import java.util.concurrent.*;
 
 @Configuration
 public class ExecutorServiceConfig {
-    @Bean
-    public ExecutorService cdekExecutor() {
-        return new ThreadPoolExecutor(
-                1, 1,
-                0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>(),
-                Executors.defaultThreadFactory(),
-                new ThreadPoolExecutor.AbortPolicy()
-        );
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService cdekWarmupExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService cdekRefreshExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
     }
 }
@@ -0,0 +1,97 @@
+package org.site.honey_shop.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import java.util.Map;
+
+/**
+ * Two producers share the spring.kafka.producer.* settings. The durable one keeps acks=all with idempotence
+ * for order events; the high-throughput one trades acknowledgements for batching and compression and is
+ * used only for page views, which may be lost without harm. Boot's producer customizers, including the
+ * Micrometer listener, are applied to both, and each gets its own client.id so their metrics stay apart.
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public DefaultKafkaProducerFactoryCustomizer valueSerializerCustomizer() {
+        return producerFactory -> ((DefaultKafkaProducerFactory<Object, Object>) producerFactory)
+                .setValueSerializer(new DelegatingByTypeSerializer(Map.<Class<?>, Serializer<?>>of(
+                        String.class, new StringSerializer(),
+                        byte[].class, new ByteArraySerializer())));
+    }
+
+    @Bean
+    public DefaultKafkaProducerFactory<String, Object> durableProducerFactory(
+            KafkaProperties kafkaProperties,
+            ObjectProvider<SslBundles> sslBundles,
+            ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable());
+        config.put(ProducerConfig.CLIENT_ID_CONFIG, "honey-shop-durable");
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return producerFactory(config, customizers);
+    }
+
+    @Bean
+    public DefaultKafkaProducerFactory<String, Object> highThroughputProducerFactory(
+            KafkaProperties kafkaProperties,
+            ObjectProvider<SslBundles> sslBundles,
+            ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers,
+            @Value("${kafka.producer.high-throughput.acks:1}") String acks,
+            @Value("${kafka.producer.high-throughput.linger-ms:20}") int lingerMs,
+            @Value("${kafka.producer.high-throughput.batch-size:131072}") int batchSize,
+            @Value("${kafka.producer.high-throughput.compression-type:lz4}") String compressionType) {
+        Map<String, Object> config = kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable());
+        config.put(ProducerConfig.CLIENT_ID_CONFIG, "honey-shop-high-throughput");
+        config.put(ProducerConfig.ACKS_CONFIG, acks);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        return producerFactory(config, customizers);
+    }
+
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> durableKafkaTemplate(
+            @Qualifier("durableProducerFactory") DefaultKafkaProducerFactory<String, Object> durableProducerFactory) {
+        return kafkaTemplate(durableProducerFactory, "durable");
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> highThroughputKafkaTemplate(
+            @Qualifier("highThroughputProducerFactory") DefaultKafkaProducerFactory<String, Object> highThroughputProducerFactory) {
+        return kafkaTemplate(highThroughputProducerFactory, "high-throughput");
+    }
+
+    private static DefaultKafkaProducerFactory<String, Object> producerFactory(
+            Map<String, Object> config, ObjectProvider<DefaultKafkaProducerFactoryCustomizer> customizers) {
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(config);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(producerFactory));
+        return producerFactory;
+    }
+
+    private static KafkaTemplate<String, Object> kafkaTemplate(DefaultKafkaProducerFactory<String, Object> producerFactory,
+                                                               String profile) {
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        kafkaTemplate.setMicrometerTags(Map.of("producer.profile", profile));
+        return kafkaTemplate;
+    }
+}
@@ -0,0 +1,38 @@
+package org.site.honey_shop.config;
+
+import org.site.honey_shop.service.CdekCacheService;
+import org.site.honey_shop.service.CdekLocalCache;
+import org.site.honey_shop.service.MainPageService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisTemplate<String, byte[]> cdekPayloadRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        return template;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CdekLocalCache cdekLocalCache,
+                                                                       MainPageService mainPageService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cdekLocalCache, new ChannelTopic(CdekCacheService.GENERATION_CHANNEL));
+        container.addMessageListener(mainPageService, new ChannelTopic(MainPageService.SNAPSHOT_CHANNEL));
+        return container;
+    }
+}
@@ -1,15 +1,22 @@
 package org.site.honey_shop.controller;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.site.honey_shop.service.CdekCacheService;
+import org.site.honey_shop.service.CdekOfficeIndexService;
+import org.site.honey_shop.service.CdekOfficeQuery;
+import org.site.honey_shop.service.CdekTariffService;
+import org.site.honey_shop.service.GzipCodec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -25,21 +32,79 @@ import java.util.Map;
 public class CdekController {
 
     private final CdekCacheService cdekCacheService;
+    private final CdekOfficeIndexService cdekOfficeIndexService;
+    private final CdekTariffService cdekTariffService;
 
     @Value("${cdek.cache.base-url}")
     private String baseUrl;
 
     @GetMapping("/offices")
-    public ResponseEntity<String> getOffices(@RequestParam Map<String, String> params) {
-        String json = cdekCacheService.getOfficesWithCaching(params);
-        return ResponseEntity.ok()
+    public ResponseEntity<byte[]> getOffices(@RequestParam Map<String, String> params,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                             String acceptEncoding) {
+        if (CdekOfficeQuery.isGeoQuery(params)) {
+            return findOffices(params);
+        }
+        byte[] gzipped = cdekCacheService.getCompressedOffices(params);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(json);
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzipped);
+        }
+        return response.body(GzipCodec.decompress(gzipped));
+    }
+
+    private ResponseEntity<byte[]> findOffices(Map<String, String> params) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cdekOfficeIndexService.findOffices(params));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip")) {
+                gzip = qValue(parts);
+            } else if (name.equals("*")) {
+                wildcard = qValue(parts);
+            }
+        }
+        Double quality = gzip != null ? gzip : wildcard;
+        return quality != null && quality > 0;
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].replace(" ", "");
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
     }
 
     @PostMapping("/offices")
     public ResponseEntity<byte[]> proxyPostToService(@RequestBody(required = false) byte[] body,
                                                      HttpServletRequest request) throws IOException {
+        ObjectNode tariffRequest = cdekTariffService.toTariffRequest(body);
+        if (tariffRequest != null) {
+            return calculateTariff(tariffRequest);
+        }
         URL url = new URL(baseUrl);
 
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -62,4 +127,16 @@ public class CdekController {
         headers.setContentType(MediaType.valueOf(connection.getContentType()));
         return new ResponseEntity<>(responseBody, headers, HttpStatus.valueOf(responseCode));
     }
+
+    private ResponseEntity<byte[]> calculateTariff(ObjectNode tariffRequest) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cdekTariffService.calculate(tariffRequest));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(e.getResponseBodyAsByteArray());
+        }
+    }
 }
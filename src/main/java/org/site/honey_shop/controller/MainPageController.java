@@ -2,8 +2,8 @@ package org.site.honey_shop.controller;
 
 import jakarta.servlet.http.HttpSession;
 import lombok.AllArgsConstructor;
+import org.site.honey_shop.dto.ShowcaseSnapshot;
 import org.site.honey_shop.entity.Order;
-import org.site.honey_shop.service.CategoryService;
 import org.site.honey_shop.service.MainPageService;
 import org.site.honey_shop.service.PaymentCashService;
 
@@ -19,14 +19,14 @@ public class MainPageController {
 
     private final MainPageService mainPageService;
     private final PaymentCashService paymentCashService;
-    private final CategoryService categoryService;
     private final HttpSession session;
 
     @GetMapping
     public String showHomePage(Model model) {
-        model.addAttribute("categorizedProducts", mainPageService.getCategorizedProductsSorted());
+        ShowcaseSnapshot showcase = mainPageService.getShowcaseSnapshot();
+        model.addAttribute("categorizedProducts", showcase.categorizedProducts());
         model.addAttribute("successPayment", paymentCashService.getPaymentSuccess(session.getId()));
-        model.addAttribute("categories", categoryService.findAllTrueVisibleCategories());
+        model.addAttribute("categories", showcase.categories());
         return "index";
     }
 
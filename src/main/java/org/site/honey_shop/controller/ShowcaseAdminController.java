@@ -16,6 +16,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
@@ -30,11 +31,14 @@ public class ShowcaseAdminController {
     public String showShowcaseManagementPage(Model model) {
         List<Category> categories = showcaseService.getShowcase();
 
+        Map<UUID, List<Product>> productsByCategory = productRepository.findAllByCategoryIsNotNullOrderByShowcaseOrderAsc()
+                .stream()
+                .collect(Collectors.groupingBy(p -> p.getCategory().getCategoryId()));
+
         Map<Category, List<Product>> categoryProductsMap = new LinkedHashMap<>();
 
         for (Category category : categories) {
-            List<Product> products = productRepository.findByCategory_CategoryIdOrderByShowcaseOrderAsc(category.getCategoryId());
-            categoryProductsMap.put(category, products);
+            categoryProductsMap.put(category, productsByCategory.getOrDefault(category.getCategoryId(), List.of()));
         }
 
         model.addAttribute("authUserId", getCurrentUserId());
@@ -54,7 +58,7 @@ public class ShowcaseAdminController {
         Map<String, List<String>> productOrderRaw = (Map<String, List<String>>) payload.get("productOrder");
 
         Map<UUID, List<UUID>> productOrder = productOrderRaw.entrySet().stream()
-                .collect(java.util.stream.Collectors.toMap(
+                .collect(Collectors.toMap(
                         e -> UUID.fromString(e.getKey()),
                         e -> e.getValue().stream().map(UUID::fromString).toList()
                 ));
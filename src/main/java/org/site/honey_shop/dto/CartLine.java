@@ -0,0 +1,8 @@
+package org.site.honey_shop.dto;
+
+import java.util.UUID;
+
+public record CartLine(
+        UUID productId,
+        int quantity
+) {}
@@ -0,0 +1,22 @@
+package org.site.honey_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.site.honey_shop.entity.OrderEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class OrderEventDto {
+
+    private UUID orderId;
+    private OrderEventType eventType;
+    private BigDecimal totalOrderAmount;
+    private String message;
+    private LocalDateTime occurredAt;
+}
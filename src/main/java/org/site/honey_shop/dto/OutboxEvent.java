@@ -0,0 +1,7 @@
+package org.site.honey_shop.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record OutboxEvent(long id, UUID orderId, String payload, LocalDateTime createDate) {
+}
@@ -0,0 +1,18 @@
+package org.site.honey_shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class PageViewAggregateDto {
+
+    private String path;
+    private String sessionId;
+    private LocalDateTime bucketTime;
+    private long views;
+}
@@ -0,0 +1,15 @@
+package org.site.honey_shop.dto;
+
+import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public record ShowcaseSnapshot(
+        long version,
+        List<Category> categories,
+        Map<String, List<Product>> categorizedProducts,
+        LocalDateTime createDate
+) {}
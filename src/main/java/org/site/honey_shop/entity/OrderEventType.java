@@ -0,0 +1,5 @@
+package org.site.honey_shop.entity;
+
+public enum OrderEventType {
+    CREATED, PAID, CANCELLED
+}
@@ -0,0 +1,258 @@
+package org.site.honey_shop.kafka;
+
+import org.site.honey_shop.dto.OrderInfoDto;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary encoding for high-volume Kafka events.
+ * <p>
+ * Layout: {@code [schema version][event type][presence mask][fields...]}. Timestamps are epoch millis of
+ * the local date-time read as UTC, so they do not depend on the producer's or consumer's zone. Strings are
+ * varint-length UTF-8, and page paths found in {@link #PATH_DICTIONARY} are sent as their dictionary code.
+ * The first byte never collides with '{', so consumers can tell JSON and binary apart. The dictionary is
+ * part of the schema: entries may only be added together with a version bump. Truncated or malformed
+ * payloads are rejected with an {@link IllegalArgumentException} naming the offending field.
+ */
+@Component
+public class BinaryEventCodec {
+
+    public static final byte SCHEMA_VERSION = 1;
+    public static final byte PAGE_VIEW_TYPE = 1;
+    public static final byte ORDER_INFO_TYPE = 2;
+
+    static final List<String> PATH_DICTIONARY = List.of(
+            "/", "/cart", "/checkout", "/showcase", "/products", "/categories", "/orders",
+            "/contacts", "/privacy-policy", "/auth/login", "/payments/new",
+            "/payments/check-payment-status", "/users/list", "/error");
+
+    static final int MAX_INTERNED_STRINGS = 1024;
+
+    private static final Map<String, Integer> PATH_CODES = pathCodes();
+
+    private final Map<String, byte[]> internedStrings = new ConcurrentHashMap<>();
+
+    public byte[] encode(PageViewEvent event) {
+        Writer writer = new Writer(64 + length(event.getUserAgent()));
+        writer.header(PAGE_VIEW_TYPE, mask(event.getPath(), event.getIp(), event.getUserAgent(),
+                event.getSessionId(), event.getVisitTime()));
+        if (event.getPath() != null) {
+            Integer code = PATH_CODES.get(event.getPath());
+            writer.varInt(code == null ? 0 : code + 1);
+            if (code == null) {
+                writer.bytes(event.getPath().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (event.getIp() != null) {
+            writer.bytes(event.getIp().getBytes(StandardCharsets.UTF_8));
+        }
+        if (event.getUserAgent() != null) {
+            writer.bytes(intern(event.getUserAgent()));
+        }
+        if (event.getSessionId() != null) {
+            writer.bytes(event.getSessionId().getBytes(StandardCharsets.UTF_8));
+        }
+        if (event.getVisitTime() != null) {
+            writer.varLong(toEpochMillis(event.getVisitTime()));
+        }
+        return writer.toByteArray();
+    }
+
+    public byte[] encode(OrderInfoDto orderInfo) {
+        Writer writer = new Writer(48);
+        writer.header(ORDER_INFO_TYPE, mask(orderInfo.getOrderId(), orderInfo.getBucketTime(),
+                orderInfo.getTotalItemsCount(), orderInfo.getTotalItemsAmount()));
+        if (orderInfo.getOrderId() != null) {
+            writer.fixedLong(orderInfo.getOrderId().getMostSignificantBits());
+            writer.fixedLong(orderInfo.getOrderId().getLeastSignificantBits());
+        }
+        if (orderInfo.getBucketTime() != null) {
+            writer.varLong(toEpochMillis(orderInfo.getBucketTime()));
+        }
+        if (orderInfo.getTotalItemsCount() != null) {
+            writer.varInt(orderInfo.getTotalItemsCount());
+        }
+        if (orderInfo.getTotalItemsAmount() != null) {
+            writer.fixedLong(Double.doubleToRawLongBits(orderInfo.getTotalItemsAmount()));
+        }
+        return writer.toByteArray();
+    }
+
+    public PageViewEvent decodePageView(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int mask = readHeader(buffer, PAGE_VIEW_TYPE);
+        String path = null;
+        if ((mask & 1) != 0) {
+            int code = readVarInt(buffer, "path");
+            if (code < 0 || code > PATH_DICTIONARY.size()) {
+                throw new IllegalArgumentException("Unknown path dictionary code: " + code);
+            }
+            path = code == 0 ? readString(buffer, "path") : PATH_DICTIONARY.get(code - 1);
+        }
+        String ip = (mask & 2) != 0 ? readString(buffer, "ip") : null;
+        String userAgent = (mask & 4) != 0 ? readString(buffer, "userAgent") : null;
+        String sessionId = (mask & 8) != 0 ? readString(buffer, "sessionId") : null;
+        LocalDateTime visitTime = (mask & 16) != 0 ? fromEpochMillis(readVarLong(buffer, "visitTime")) : null;
+        return new PageViewEvent(path, ip, userAgent, sessionId, visitTime);
+    }
+
+    public OrderInfoDto decodeOrderInfo(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int mask = readHeader(buffer, ORDER_INFO_TYPE);
+        UUID orderId = (mask & 1) != 0
+                ? new UUID(readFixedLong(buffer, "orderId"), readFixedLong(buffer, "orderId")) : null;
+        LocalDateTime bucketTime = (mask & 2) != 0 ? fromEpochMillis(readVarLong(buffer, "bucketTime")) : null;
+        Integer totalItemsCount = (mask & 4) != 0 ? readVarInt(buffer, "totalItemsCount") : null;
+        Double totalItemsAmount = (mask & 8) != 0
+                ? Double.longBitsToDouble(readFixedLong(buffer, "totalItemsAmount")) : null;
+        return new OrderInfoDto(orderId, bucketTime, totalItemsCount, totalItemsAmount);
+    }
+
+    private byte[] intern(String value) {
+        byte[] bytes = internedStrings.get(value);
+        if (bytes != null) {
+            return bytes;
+        }
+        bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (internedStrings.size() < MAX_INTERNED_STRINGS) {
+            internedStrings.putIfAbsent(value, bytes);
+        }
+        return bytes;
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private static int mask(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static int readHeader(ByteBuffer buffer, byte expectedType) {
+        require(buffer, 3, "header");
+        byte version = buffer.get();
+        byte type = buffer.get();
+        if (version != SCHEMA_VERSION || type != expectedType) {
+            throw new IllegalArgumentException("Unsupported event header: version=" + version + ", type=" + type);
+        }
+        return buffer.get();
+    }
+
+    private static String readString(ByteBuffer buffer, String field) {
+        int length = readVarInt(buffer, field);
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length " + length + " of field " + field);
+        }
+        require(buffer, length, field);
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int readVarInt(ByteBuffer buffer, String field) {
+        long value = readVarLong(buffer, field);
+        if (value != (int) value) {
+            throw new IllegalArgumentException("Value " + value + " of field " + field + " does not fit an int");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer buffer, String field) {
+        long zigZag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 64) {
+                throw new IllegalArgumentException("Varint of field " + field + " is longer than 10 bytes");
+            }
+            require(buffer, 1, field);
+            b = buffer.get();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    private static long readFixedLong(ByteBuffer buffer, String field) {
+        require(buffer, Long.BYTES, field);
+        return buffer.getLong();
+    }
+
+    private static void require(ByteBuffer buffer, int bytes, String field) {
+        if (buffer.remaining() < bytes) {
+            throw new IllegalArgumentException("Truncated event: field " + field + " needs " + bytes
+                    + " bytes at offset " + buffer.position() + ", " + buffer.remaining() + " left");
+        }
+    }
+
+    private static Map<String, Integer> pathCodes() {
+        Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < PATH_DICTIONARY.size(); i++) {
+            codes.put(PATH_DICTIONARY.get(i), i);
+        }
+        return Map.copyOf(codes);
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer(int size) {
+            super(size);
+        }
+
+        void header(byte type, int mask) {
+            write(SCHEMA_VERSION);
+            write(type);
+            write(mask);
+        }
+
+        void bytes(byte[] value) {
+            varInt(value.length);
+            writeBytes(value);
+        }
+
+        void varInt(int value) {
+            varLong(value);
+        }
+
+        void varLong(long value) {
+            long zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                write((int) ((zigZag & 0x7F) | 0x80));
+                zigZag >>>= 7;
+            }
+            write((int) zigZag);
+        }
+
+        void fixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package org.site.honey_shop.kafka;
+
+public enum EventEncoding {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,52 @@
+package org.site.honey_shop.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.site.honey_shop.dto.OrderEventDto;
+import org.site.honey_shop.dto.OrderInfoDto;
+import org.site.honey_shop.dto.PageViewAggregateDto;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KafkaEventSerializer {
+
+    private final ObjectWriter pageViewWriter;
+    private final ObjectWriter orderInfoWriter;
+    private final ObjectWriter orderEventWriter;
+    private final ObjectWriter pageViewAggregateWriter;
+
+    public KafkaEventSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.pageViewWriter = objectMapper.writerFor(PageViewEvent.class);
+        this.orderInfoWriter = objectMapper.writerFor(OrderInfoDto.class);
+        this.orderEventWriter = objectMapper.writerFor(OrderEventDto.class);
+        this.pageViewAggregateWriter = objectMapper.writerFor(PageViewAggregateDto.class);
+    }
+
+    public String toJson(PageViewEvent pageViewEvent) {
+        return write(pageViewWriter, pageViewEvent);
+    }
+
+    public String toJson(OrderInfoDto orderInfoDto) {
+        return write(orderInfoWriter, orderInfoDto);
+    }
+
+    public String toJson(OrderEventDto orderEventDto) {
+        return write(orderEventWriter, orderEventDto);
+    }
+
+    public String toJson(PageViewAggregateDto pageViewAggregateDto) {
+        return write(pageViewAggregateWriter, pageViewAggregateDto);
+    }
+
+    private static String write(ObjectWriter writer, Object value) {
+        try {
+            return writer.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -2,15 +2,18 @@ package org.site.honey_shop.kafka;
 
 import lombok.AllArgsConstructor;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @AllArgsConstructor
 public class OrderEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
 
-    public void publishOrderCreatedEvent(String message) {
-        kafkaTemplate.send("order.created", message);
+    public CompletableFuture<SendResult<String, Object>> publishOrderEvent(String orderId, String payload) {
+        return kafkaTemplate.send("order.created", orderId, payload);
     }
 }
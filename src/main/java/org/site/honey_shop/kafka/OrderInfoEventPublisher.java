@@ -1,32 +1,32 @@
 package org.site.honey_shop.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.site.honey_shop.dto.OrderInfoDto;
 import org.site.honey_shop.entity.Order;
 import org.site.honey_shop.mapper.ShopMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class OrderInfoEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
     private final ShopMapper shopMapper;
+    private final KafkaEventSerializer kafkaEventSerializer;
+    private final BinaryEventCodec binaryEventCodec;
+
+    @Setter
+    @Value("${kafka.topic.order-info.encoding:JSON}")
+    private EventEncoding encoding = EventEncoding.JSON;
 
     public void publishOrderInfoEvent(Order order) {
         OrderInfoDto orderInfoDto = shopMapper.toOrderInfoDto(order);
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        String message = null;
-        try {
-            message = objectMapper.writeValueAsString(orderInfoDto);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
-        kafkaTemplate.send("order.info", message);
+        Object payload = encoding == EventEncoding.BINARY
+                ? binaryEventCodec.encode(orderInfoDto)
+                : kafkaEventSerializer.toJson(orderInfoDto);
+        kafkaTemplate.send("order.info", payload);
     }
 }
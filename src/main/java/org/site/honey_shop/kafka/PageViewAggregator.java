@@ -0,0 +1,146 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.dto.PageViewAggregateDto;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rolls page views up into per-minute (path, session) counters and publishes one aggregate record per
+ * counter once its minute is over. Counters are spread over several maps so that a flush walking one
+ * stripe does not slow down writers hitting the others. Views arriving for a minute that has already been
+ * flushed are dropped and counted rather than published as a second aggregate for that minute.
+ */
+@Slf4j
+@Component
+public class PageViewAggregator {
+
+    private record BucketKey(String path, String sessionId, LocalDateTime bucketTime) {
+    }
+
+    private final PageViewEventPublisher pageViewEventPublisher;
+    private final ConcurrentHashMap<BucketKey, Long>[] stripes;
+    private final AtomicInteger keys = new AtomicInteger();
+    private final AtomicReference<LocalDateTime> flushedBefore = new AtomicReference<>(LocalDateTime.MIN);
+    @Getter
+    private final boolean enabled;
+    private final int maxKeys;
+    private final Counter aggregated;
+    private final Counter dropped;
+    private final Counter late;
+    private final Counter flushed;
+    private final Counter failed;
+
+    @SuppressWarnings("unchecked")
+    public PageViewAggregator(PageViewEventPublisher pageViewEventPublisher,
+                              MeterRegistry meterRegistry,
+                              @Value("${pageview.aggregation.enabled:false}") boolean enabled,
+                              @Value("${pageview.aggregation.stripes:16}") int stripeCount,
+                              @Value("${pageview.aggregation.max-keys:100000}") int maxKeys) {
+        this.pageViewEventPublisher = pageViewEventPublisher;
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.aggregated = Counter.builder("pageviews.aggregated").register(meterRegistry);
+        this.dropped = Counter.builder("pageviews.aggregation.dropped").register(meterRegistry);
+        this.late = Counter.builder("pageviews.aggregation.late").register(meterRegistry);
+        this.flushed = Counter.builder("pageviews.aggregates.sent").register(meterRegistry);
+        this.failed = Counter.builder("pageviews.aggregates.failed").register(meterRegistry);
+        Gauge.builder("pageviews.aggregation.keys", keys, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public void record(PageViewEvent event) {
+        LocalDateTime visitTime = event.getVisitTime() != null ? event.getVisitTime() : LocalDateTime.now();
+        BucketKey key = new BucketKey(event.getPath(), event.getSessionId(), visitTime.truncatedTo(ChronoUnit.MINUTES));
+        boolean[] isLate = new boolean[1];
+        Long views = stripeFor(key).compute(key, (k, current) -> {
+            if (current != null) {
+                return current + 1;
+            }
+            if (k.bucketTime().isBefore(flushedBefore.get())) {
+                isLate[0] = true;
+                return null;
+            }
+            if (keys.incrementAndGet() > maxKeys) {
+                keys.decrementAndGet();
+                return null;
+            }
+            return 1L;
+        });
+        if (views != null) {
+            aggregated.increment();
+        } else if (isLate[0]) {
+            late.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pageview.aggregation.flush-interval-ms:10000}")
+    public int flushClosedBuckets() {
+        return flushBefore(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+    }
+
+    @PreDestroy
+    public int flushAll() {
+        return flushBefore(LocalDateTime.MAX);
+    }
+
+    int flushBefore(LocalDateTime cutoff) {
+        flushedBefore.accumulateAndGet(cutoff, (current, next) -> next.isAfter(current) ? next : current);
+        int records = 0;
+        for (ConcurrentHashMap<BucketKey, Long> stripe : stripes) {
+            for (BucketKey key : stripe.keySet()) {
+                if (!key.bucketTime().isBefore(cutoff)) {
+                    continue;
+                }
+                Long views = stripe.remove(key);
+                if (views != null) {
+                    keys.decrementAndGet();
+                    send(new PageViewAggregateDto(key.path(), key.sessionId(), key.bucketTime(), views));
+                    records++;
+                }
+            }
+        }
+        if (records > 0) {
+            log.debug("Flushed {} page view aggregates before {}", records, cutoff);
+        }
+        return records;
+    }
+
+    private ConcurrentHashMap<BucketKey, Long> stripeFor(BucketKey key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % stripes.length];
+    }
+
+    private void send(PageViewAggregateDto aggregate) {
+        try {
+            pageViewEventPublisher.publishPageViewAggregate(aggregate).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    flushed.increment();
+                } else {
+                    failed.increment();
+                    log.warn("Page view aggregate not sent: {}", ex.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Page view aggregate not sent: {}", e.getMessage());
+        }
+    }
+}
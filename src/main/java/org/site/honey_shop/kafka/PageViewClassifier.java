@@ -0,0 +1,162 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Decides on the request thread whether an HTML request is a real page view. Bot user agents are matched
+ * by an Aho-Corasick automaton built once at startup, so classifying a request walks the header a single
+ * time without allocating; excluded routes are a plain prefix table.
+ */
+@Component
+public class PageViewClassifier {
+
+    public enum Classification {
+        PAGE, BOT, EXCLUDED_PATH, PREFETCH
+    }
+
+    /**
+     * Whole crawler names rather than bare "bot" or "yandex", which also occur in real browsers such as
+     * YaBrowser, YandexSearch and Cubot phones; "bot/" and "bot;" catch the remaining "SomethingBot/1.0" agents.
+     */
+    static final List<String> DEFAULT_BOT_TOKENS = List.of(
+            "googlebot", "bingbot", "yandexbot", "yandexmetrika", "yandexdirect", "yandeximages", "yandexrenderer",
+            "mail.ru_bot", "duckduckbot", "telegrambot", "bot/", "bot;", "crawler", "spider", "slurp",
+            "facebookexternalhit", "headless", "lighthouse", "kube-probe", "prometheus", "uptime", "curl", "wget",
+            "python-requests", "go-http-client", "okhttp", "apache-httpclient", "java/", "postman");
+
+    private static final int ALPHABET = 128;
+
+    private final int[][] transitions;
+    private final boolean[] terminal;
+    private final String[] excludedPathPrefixes;
+    private final Map<Classification, Counter> counters = new EnumMap<>(Classification.class);
+
+    public PageViewClassifier(MeterRegistry meterRegistry,
+                              @Value("${pageview.filter.bot-tokens:}") List<String> extraBotTokens,
+                              @Value("${pageview.filter.excluded-path-prefixes:/static/,/app/uploads/,/actuator,/favicon.ico,/robots.txt,/sitemap,/error}")
+                              List<String> excludedPathPrefixes) {
+        List<String> botTokens = new ArrayList<>(DEFAULT_BOT_TOKENS);
+        extraBotTokens.stream().filter(token -> !token.isBlank()).forEach(botTokens::add);
+
+        List<int[]> goTo = new ArrayList<>();
+        List<Boolean> output = new ArrayList<>();
+        goTo.add(newState());
+        output.add(false);
+        for (String token : botTokens) {
+            int state = 0;
+            for (char c : token.toLowerCase(Locale.ROOT).toCharArray()) {
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Bot token must be ASCII: " + token);
+                }
+                if (goTo.get(state)[c] < 0) {
+                    goTo.get(state)[c] = goTo.size();
+                    goTo.add(newState());
+                    output.add(false);
+                }
+                state = goTo.get(state)[c];
+            }
+            output.set(state, true);
+        }
+
+        this.transitions = goTo.toArray(new int[0][]);
+        this.terminal = new boolean[transitions.length];
+        for (int i = 0; i < terminal.length; i++) {
+            terminal[i] = output.get(i);
+        }
+        buildFailureTransitions();
+
+        this.excludedPathPrefixes = excludedPathPrefixes.stream()
+                .filter(prefix -> !prefix.isBlank())
+                .toArray(String[]::new);
+        for (Classification classification : Classification.values()) {
+            counters.put(classification, Counter.builder("pageviews.classified")
+                    .description("HTML requests seen by the page view filter")
+                    .tag("classification", classification.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
+    public Classification classify(String path, String userAgent, String purpose) {
+        Classification classification = resolve(path, userAgent, purpose);
+        counters.get(classification).increment();
+        return classification;
+    }
+
+    boolean isBot(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return true;
+        }
+        int state = 0;
+        for (int i = 0; i < userAgent.length(); i++) {
+            char c = userAgent.charAt(i);
+            if (c >= ALPHABET) {
+                state = 0;
+                continue;
+            }
+            state = transitions[state][c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c];
+            if (terminal[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Classification resolve(String path, String userAgent, String purpose) {
+        if (purpose != null && purpose.contains("prefetch")) {
+            return Classification.PREFETCH;
+        }
+        if (path != null) {
+            for (String prefix : excludedPathPrefixes) {
+                if (path.startsWith(prefix)) {
+                    return Classification.EXCLUDED_PATH;
+                }
+            }
+        }
+        return isBot(userAgent) ? Classification.BOT : Classification.PAGE;
+    }
+
+    private void buildFailureTransitions() {
+        int[] failure = new int[transitions.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions[0][c];
+            if (next < 0) {
+                transitions[0][c] = 0;
+            } else {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            terminal[state] |= terminal[failure[state]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
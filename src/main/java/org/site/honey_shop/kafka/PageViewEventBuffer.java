@@ -0,0 +1,137 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class PageViewEventBuffer {
+
+    public enum DropPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST
+    }
+
+    private final PageViewEventPublisher pageViewEventPublisher;
+    private final BlockingQueue<PageViewEvent> queue;
+    private final List<PageViewEvent> batch;
+    private final DropPolicy dropPolicy;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter sent;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public PageViewEventBuffer(PageViewEventPublisher pageViewEventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${pageview.buffer.capacity:8192}") int capacity,
+                               @Value("${pageview.buffer.batch-size:256}") int batchSize,
+                               @Value("${pageview.buffer.flush-interval-ms:200}") long flushIntervalMs,
+                               @Value("${pageview.buffer.drop-policy:DROP_NEWEST}") DropPolicy dropPolicy) {
+        this.pageViewEventPublisher = pageViewEventPublisher;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batch = new ArrayList<>(batchSize);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.dropPolicy = dropPolicy;
+        this.enqueued = Counter.builder("pageviews.enqueued").register(meterRegistry);
+        this.dropped = Counter.builder("pageviews.dropped").register(meterRegistry);
+        this.sent = Counter.builder("pageviews.sent").register(meterRegistry);
+        this.failed = Counter.builder("pageviews.failed").register(meterRegistry);
+        Gauge.builder("pageviews.buffer.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        drainer = new Thread(this::run, "page-view-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean offer(PageViewEvent event) {
+        if (queue.offer(event)) {
+            enqueued.increment();
+            return true;
+        }
+        if (dropPolicy == DropPolicy.DROP_OLDEST && queue.poll() != null) {
+            dropped.increment();
+            if (queue.offer(event)) {
+                enqueued.increment();
+                return true;
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    int drain() {
+        queue.drainTo(batch, batchSize - batch.size());
+        int drained = batch.size();
+        for (PageViewEvent event : batch) {
+            send(event);
+        }
+        batch.clear();
+        return drained;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                PageViewEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    drain();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.error("Page view drainer error", e);
+                batch.clear();
+            }
+        }
+        while (drain() > 0) {
+            log.debug("Flushed page views on shutdown");
+        }
+    }
+
+    private void send(PageViewEvent event) {
+        try {
+            pageViewEventPublisher.publishPageViewEvent(event).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    sent.increment();
+                } else {
+                    failed.increment();
+                    log.warn("Page view event not sent: {}", ex.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Page view event not sent: {}", e.getMessage());
+        }
+    }
+}
@@ -1,28 +1,43 @@
 package org.site.honey_shop.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import lombok.AllArgsConstructor;
+import lombok.Setter;
+import org.site.honey_shop.dto.PageViewAggregateDto;
 import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
-@AllArgsConstructor
 public class PageViewEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-
-    public void publishPageViewEvent(PageViewEvent pageViewEvent) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        String json;
-        try {
-            json = objectMapper.writeValueAsString(pageViewEvent);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
-        kafkaTemplate.send("page-view-info", json);
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaEventSerializer kafkaEventSerializer;
+    private final BinaryEventCodec binaryEventCodec;
+
+    @Setter
+    @Value("${kafka.topic.page-view-info.encoding:JSON}")
+    private EventEncoding encoding = EventEncoding.JSON;
+
+    public PageViewEventPublisher(@Qualifier("highThroughputKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate,
+                                  KafkaEventSerializer kafkaEventSerializer,
+                                  BinaryEventCodec binaryEventCodec) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaEventSerializer = kafkaEventSerializer;
+        this.binaryEventCodec = binaryEventCodec;
+    }
+
+    public CompletableFuture<SendResult<String, Object>> publishPageViewEvent(PageViewEvent pageViewEvent) {
+        Object payload = encoding == EventEncoding.BINARY
+                ? binaryEventCodec.encode(pageViewEvent)
+                : kafkaEventSerializer.toJson(pageViewEvent);
+        return kafkaTemplate.send("page-view-info", payload);
+    }
+
+    public CompletableFuture<SendResult<String, Object>> publishPageViewAggregate(PageViewAggregateDto aggregate) {
+        return kafkaTemplate.send("page-view-aggregates", aggregate.getPath(), kafkaEventSerializer.toJson(aggregate));
     }
 }
@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import lombok.AllArgsConstructor;
 import org.site.honey_shop.entity.PageViewEvent;
 import org.springframework.stereotype.Component;
@@ -16,7 +17,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class PageViewLoggingFilter extends OncePerRequestFilter {
 
-    private final PageViewEventPublisher pageViewEventPublisher;
+    private final PageViewEventBuffer pageViewEventBuffer;
+    private final PageViewAggregator pageViewAggregator;
+    private final PageViewClassifier pageViewClassifier;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -27,15 +30,22 @@ public class PageViewLoggingFilter extends OncePerRequestFilter {
 
         if (acceptHeader != null && acceptHeader.contains("text/html")) {
             String path = request.getRequestURI();
-            String ip = request.getRemoteAddr();
             String userAgent = request.getHeader("User-Agent");
-            String sessionId = (request.getSession(false) != null)
-                    ? request.getSession(false).getId()
-                    : null;
-            LocalDateTime visitTime = LocalDateTime.now();
-
-            PageViewEvent event = new PageViewEvent(path, ip, userAgent, sessionId, visitTime);
-            pageViewEventPublisher.publishPageViewEvent(event);
+            String purpose = request.getHeader("Sec-Purpose");
+            if (purpose == null) {
+                purpose = request.getHeader("Purpose");
+            }
+
+            if (pageViewClassifier.classify(path, userAgent, purpose) == PageViewClassifier.Classification.PAGE) {
+                HttpSession session = request.getSession(false);
+                PageViewEvent event = new PageViewEvent(path, request.getRemoteAddr(), userAgent,
+                        session != null ? session.getId() : null, LocalDateTime.now());
+                if (pageViewAggregator.isEnabled()) {
+                    pageViewAggregator.record(event);
+                } else {
+                    pageViewEventBuffer.offer(event);
+                }
+            }
         }
 
         filterChain.doFilter(request, response);
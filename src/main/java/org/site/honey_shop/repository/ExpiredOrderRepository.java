@@ -0,0 +1,8 @@
+package org.site.honey_shop.repository;
+
+import java.time.LocalDateTime;
+
+public interface ExpiredOrderRepository {
+
+    int cancelExpiredOrders(LocalDateTime expirationThreshold, int limit);
+}
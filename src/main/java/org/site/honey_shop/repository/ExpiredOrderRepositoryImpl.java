@@ -0,0 +1,77 @@
+package org.site.honey_shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ExpiredOrderRepositoryImpl implements ExpiredOrderRepository {
+
+    private static final String LOCK_EXPIRED_SQL = """
+            SELECT order_id FROM orders
+            WHERE order_status = 'PENDING' AND create_date < :threshold
+            ORDER BY create_date
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String RESERVED_STOCK_SQL = """
+            SELECT product_id, SUM(quantity) AS quantity FROM order_items
+            WHERE order_id IN (:orderIds) GROUP BY product_id""";
+
+    private static final String RESTORE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity + :quantity WHERE product_id = :productId";
+
+    private static final String FAIL_PAYMENTS_SQL = """
+            UPDATE payments SET payment_status = 'FAILED', update_date = now()
+            WHERE order_id IN (:orderIds)""";
+
+    private static final String CANCEL_ORDERS_SQL = """
+            UPDATE orders SET order_status = 'CANCELLED', payment_status = 'FAILED', update_date = now()
+            WHERE order_id IN (:orderIds)""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int cancelExpiredOrders(LocalDateTime expirationThreshold, int limit) {
+        List<UUID> orderIds = jdbcTemplate.queryForList(LOCK_EXPIRED_SQL, new MapSqlParameterSource()
+                .addValue("threshold", Timestamp.valueOf(expirationThreshold))
+                .addValue("limit", limit), UUID.class);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("orderIds", orderIds);
+        restoreStock(params);
+        jdbcTemplate.update(FAIL_PAYMENTS_SQL, params);
+        jdbcTemplate.update(CANCEL_ORDERS_SQL, params);
+        return orderIds.size();
+    }
+
+    /**
+     * Returns stock in the same product order as {@link StockReservationRepositoryImpl#reserveStock}, so a
+     * sweep and a checkout touching the same products wait on each other instead of deadlocking.
+     */
+    private void restoreStock(MapSqlParameterSource params) {
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        jdbcTemplate.query(RESERVED_STOCK_SQL, params, rs -> {
+            quantities.put(rs.getObject("product_id", UUID.class), rs.getInt("quantity"));
+        });
+        if (quantities.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] rows = quantities.entrySet().stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("productId", row.getKey())
+                        .addValue("quantity", row.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(RESTORE_STOCK_SQL, rows);
+    }
+}
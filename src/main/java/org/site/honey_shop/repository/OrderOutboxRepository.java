@@ -0,0 +1,21 @@
+package org.site.honey_shop.repository;
+
+import org.site.honey_shop.dto.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OrderOutboxRepository {
+
+    void appendOutboxEvent(UUID orderId, String eventType, String payload);
+
+    List<OutboxEvent> lockNextOutboxBatch(int limit);
+
+    void deleteOutboxEvents(List<Long> ids);
+
+    long countOutboxEvents();
+
+    Optional<LocalDateTime> oldestOutboxEventDate();
+}
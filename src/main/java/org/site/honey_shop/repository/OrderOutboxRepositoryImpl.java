@@ -0,0 +1,69 @@
+package org.site.honey_shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.site.honey_shop.dto.OutboxEvent;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class OrderOutboxRepositoryImpl implements OrderOutboxRepository {
+
+    private static final String APPEND_SQL = """
+            INSERT INTO order_outbox (order_id, event_type, payload, create_date)
+            VALUES (:orderId, :eventType, :payload, now())""";
+
+    // Only one relay may hold the lock, so events of an order leave in the order they were written
+    private static final String RELAY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext('order_outbox'))";
+
+    private static final String NEXT_BATCH_SQL = """
+            SELECT id, order_id, payload, create_date FROM order_outbox
+            ORDER BY id
+            LIMIT :limit""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void appendOutboxEvent(UUID orderId, String eventType, String payload) {
+        jdbcTemplate.update(APPEND_SQL, new MapSqlParameterSource()
+                .addValue("orderId", orderId)
+                .addValue("eventType", eventType)
+                .addValue("payload", payload));
+    }
+
+    @Override
+    public List<OutboxEvent> lockNextOutboxBatch(int limit) {
+        Boolean locked = jdbcTemplate.queryForObject(RELAY_LOCK_SQL, Map.of(), Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) {
+            return List.of();
+        }
+        return jdbcTemplate.query(NEXT_BATCH_SQL, Map.of("limit", limit), (rs, rowNum) -> new OutboxEvent(
+                rs.getLong("id"),
+                rs.getObject("order_id", UUID.class),
+                rs.getString("payload"),
+                rs.getTimestamp("create_date").toLocalDateTime()));
+    }
+
+    @Override
+    public void deleteOutboxEvents(List<Long> ids) {
+        jdbcTemplate.update("DELETE FROM order_outbox WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+
+    @Override
+    public long countOutboxEvents() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM order_outbox", Map.of(), Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public Optional<LocalDateTime> oldestOutboxEventDate() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(create_date) FROM order_outbox", Map.of(), Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+}
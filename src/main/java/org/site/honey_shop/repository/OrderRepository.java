@@ -1,20 +1,15 @@
 package org.site.honey_shop.repository;
 
 import org.site.honey_shop.entity.Order;
-import org.site.honey_shop.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
-import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, UUID> {
-
-    List<Order> findByOrderStatusAndCreateDateBefore(OrderStatus orderStatus, LocalDateTime attr0);
+public interface OrderRepository extends JpaRepository<Order, UUID>, ExpiredOrderRepository, OrderOutboxRepository {
 
     Page<Order> findAll(Pageable pageable);
 }
@@ -4,19 +4,38 @@ import org.site.honey_shop.entity.Category;
 import org.site.honey_shop.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, StockReservationRepository {
 
     List<Product> findByCategory_CategoryIdOrderByShowcaseOrderAsc(UUID categoryId);
 
     List<Product> findByCategory_CategoryIdAndShowInShowcaseTrueOrderByShowcaseOrderAsc(UUID categoryId);
 
+    @EntityGraph(attributePaths = {"category", "images"})
+    List<Product> findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc();
+
+    @EntityGraph(attributePaths = {"category", "images"})
+    List<Product> findAllByCategoryIsNotNullOrderByShowcaseOrderAsc();
+
+    @EntityGraph(attributePaths = {"category", "images"})
+    List<Product> findAllByProductIdIn(Collection<UUID> productIds);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<UUID> productIds);
+
+    @Query(value = "select p.productId from Product p", countQuery = "select count(p) from Product p")
+    Page<UUID> findProductIds(Pageable pageable);
+
     List<Product> findAllByCategory(Category category);
 
     Page<Product> findAll(Pageable pageable);
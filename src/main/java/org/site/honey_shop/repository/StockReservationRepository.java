@@ -0,0 +1,10 @@
+package org.site.honey_shop.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface StockReservationRepository {
+
+    List<UUID> reserveStock(Map<UUID, Integer> quantities);
+}
@@ -0,0 +1,37 @@
+package org.site.honey_shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.*;
+
+@RequiredArgsConstructor
+public class StockReservationRepositoryImpl implements StockReservationRepository {
+
+    private static final String RESERVE_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE product_id = ? AND stock_quantity >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<UUID> reserveStock(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<UUID, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_STOCK_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setObject(2, row.getKey());
+            ps.setInt(3, row.getValue());
+        })[0];
+
+        List<UUID> rejected = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                rejected.add(rows.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+}
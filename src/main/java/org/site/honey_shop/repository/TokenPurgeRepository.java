@@ -0,0 +1,12 @@
+package org.site.honey_shop.repository;
+
+import java.time.LocalDateTime;
+
+public interface TokenPurgeRepository {
+
+    int purgeTokens(LocalDateTime createdBefore, int limit);
+
+    long countTokens();
+
+    long tokensTableSizeBytes();
+}
@@ -0,0 +1,36 @@
+package org.site.honey_shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class TokenPurgeRepositoryImpl implements TokenPurgeRepository {
+
+    private static final String PURGE_SQL = """
+            DELETE FROM tokens WHERE token_id IN (
+                SELECT token_id FROM tokens
+                WHERE create_date < ? OR is_refresh_token_valid = false
+                LIMIT ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int purgeTokens(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(createdBefore), limit);
+    }
+
+    @Override
+    public long countTokens() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM tokens", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public long tokensTableSizeBytes() {
+        Long size = jdbcTemplate.queryForObject("SELECT pg_total_relation_size('tokens')", Long.class);
+        return size == null ? 0 : size;
+    }
+}
@@ -8,7 +8,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TokenRepository extends JpaRepository<Token, UUID> {
+public interface TokenRepository extends JpaRepository<Token, UUID>, TokenPurgeRepository {
 
     Optional<Token> findByAccessToken(String accessToken);
 
@@ -1,5 +1,6 @@
 package org.site.honey_shop.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -11,14 +12,14 @@ import org.site.honey_shop.entity.Token;
 import org.site.honey_shop.exception.MyAuthenticationException;
 import org.site.honey_shop.service.AuthService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.util.List;
 import java.util.Optional;
 
 import static java.util.Arrays.stream;
@@ -30,7 +31,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final AuthService authService;
-    private final UserDetailsService userDetailsService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -65,10 +65,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 Optional<String> refreshToken = getCookie(cookies, "refresh_token");
 
                 if (accessToken.isPresent()) {
-                    String access = accessToken.get();
+                    Optional<Claims> claims = jwtService.validateAccessToken(accessToken.get());
 
-                    if (!jwtService.isAccessTokenExpiredAndInvalid(access)) {
-                        authenticateUser(access);
+                    if (claims.isPresent()) {
+                        authenticateUser(claims.get());
                     } else if (refreshToken.isPresent()) {
                         String refresh = refreshToken.get();
 
@@ -78,7 +78,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             Token newToken = authService.refreshToken(refresh);
                             jwtService.invalidateToken(jwtService.findByRefreshToken(refresh));
 
-                            authenticateUser(newToken.getAccessToken());
+                            authenticateUser(jwtService.validateAccessToken(newToken.getAccessToken())
+                                    .orElseThrow(() -> new MyAuthenticationException("Refreshed access token is invalid")));
 
                             setCookie(response, "access_token", newToken.getAccessToken());
                             setCookie(response, "refresh_token", newToken.getRefreshToken());
@@ -116,12 +117,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 .findFirst();
     }
 
-    private void authenticateUser(String accessToken) {
-        String username = jwtService.extractUserName(accessToken);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+    private void authenticateUser(Claims claims) {
+        String username = claims.getSubject();
+        List<?> roles = claims.get("authorities", List.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
 
         UsernamePasswordAuthenticationToken auth =
-                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                new UsernamePasswordAuthenticationToken(username, null, authorities);
 
         SecurityContextHolder.getContext().setAuthentication(auth);
         log.info("User {} authenticated by JWT", username);
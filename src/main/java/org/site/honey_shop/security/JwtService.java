@@ -1,21 +1,20 @@
 package org.site.honey_shop.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.site.honey_shop.constants.TokenLifeTime;
 import org.site.honey_shop.entity.Token;
+import org.site.honey_shop.entity.User;
 import org.site.honey_shop.repository.TokenRepository;
-import org.site.honey_shop.service.UserService;
+import org.site.honey_shop.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationContext;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
@@ -23,45 +22,51 @@ import javax.crypto.SecretKey;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class JwtService {
 
-    @Value("${myapp.secret.key}")
-    private String secretKey;
     private final long validityFifteenMinutes = TokenLifeTime.ACCESS_TOKEN.toMillis();
     private final long validitySevenDays = TokenLifeTime.REFRESH_TOKEN.toMillis();
-    private final UserService userService;
-    private final ApplicationContext context;
-
-
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final UserRepository userRepository;
     private final TokenRepository tokenRepository;
+    private final TokenDenyList tokenDenyList;
+
+    public JwtService(@Value("${myapp.secret.key}") String secretKey,
+                      UserRepository userRepository,
+                      TokenRepository tokenRepository,
+                      TokenDenyList tokenDenyList) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.tokenDenyList = tokenDenyList;
+    }
 
     public String generateAccessToken(String username) {
-        System.out.println("context class inside generateAccessToken: " + context.getClass());
-        UserDetailsService userDetailsService = context.getBean(UserDetailsService.class);
-        Collection<? extends GrantedAuthority> authorities =
-                userDetailsService.loadUserByUsername(username).getAuthorities();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        List<String> roles = authorities.stream()
+        List<String> roles = user.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
 
         return Jwts.builder()
                 .subject(username)
-                .claim("userId", userService.findByUsername(username).userId())
+                .claim("userId", user.getUserId())
                 .claim("authorities", roles)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + validityFifteenMinutes))
-                .setId(UUID.randomUUID().toString())
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .id(UUID.randomUUID().toString())
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -70,8 +75,8 @@ public class JwtService {
                 .subject(username)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + validitySevenDays))
-                .setId(UUID.randomUUID().toString())
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+                .id(UUID.randomUUID().toString())
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -84,17 +89,30 @@ public class JwtService {
         return claimsResolvers.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Optional<Claims> validateAccessToken(String accessToken) {
+        try {
+            Claims claims = extractAllClaims(accessToken);
+            if (claims.getId() == null || tokenDenyList.isDenied(claims.getId())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Access token rejected: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public void revokeAccessToken(String accessToken) {
+        try {
+            Claims claims = extractAllClaims(accessToken);
+            tokenDenyList.deny(claims.getId(), claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Access token not revoked: {}", e.getMessage());
+        }
+    }
+
+    private Claims extractAllClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     public void invalidateToken(Token token) {
@@ -102,6 +120,7 @@ public class JwtService {
             token.setAccessTokenValid(false);
             token.setRefreshTokenValid(false);
             tokenRepository.save(token);
+            revokeAccessToken(token.getAccessToken());
         }
     }
 
@@ -130,11 +149,7 @@ public class JwtService {
     }
 
     public boolean isAccessTokenExpiredAndInvalid(String accessToken) {
-        Token accessTokenObj = tokenRepository.findByAccessToken(accessToken)
-                .orElseThrow(() -> new RuntimeException("Token not found"));
-        LocalDateTime expirationTime = accessTokenObj.getCreateDate()
-                .plus(Duration.of(validityFifteenMinutes, ChronoUnit.MILLIS));
-        return expirationTime.isBefore(LocalDateTime.now()) || !accessTokenObj.isAccessTokenValid();
+        return validateAccessToken(accessToken).isEmpty();
     }
 
     public boolean isRefreshTokenExpiredAndInvalid(String refreshToken) {
@@ -0,0 +1,50 @@
+package org.site.honey_shop.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenDenyList {
+
+    private static final String KEY_PREFIX = "jwt::deny::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Instant> localDenied = new ConcurrentHashMap<>();
+
+    public void deny(String jti, Instant expiresAt) {
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        if (jti == null || ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        localDenied.put(jti, expiresAt);
+        redisTemplate.opsForValue().set(KEY_PREFIX + jti, "1", ttl);
+        log.info("Token {} denied until {}", jti, expiresAt);
+    }
+
+    public boolean isDenied(String jti) {
+        Instant expiresAt = localDenied.get(jti);
+        if (expiresAt != null) {
+            if (expiresAt.isAfter(Instant.now())) {
+                return true;
+            }
+            localDenied.remove(jti);
+        }
+        return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + jti));
+    }
+
+    @Scheduled(fixedRate = 60 * 1000)
+    public void evictExpired() {
+        Instant now = Instant.now();
+        localDenied.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+    }
+}
@@ -0,0 +1,113 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.dto.CartLine;
+import org.site.honey_shop.exception.OrderCreateException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+
+@Slf4j
+@Component
+public class CartParser {
+
+    public static final int MAX_JSON_LENGTH = 64 * 1024;
+    public static final int MAX_LINES = 100;
+    public static final int MAX_QUANTITY = 1000;
+
+    private static final String INVALID_JSON_MESSAGE = "Ошибка при разборе JSON с товарами";
+
+    private final JsonFactory jsonFactory;
+
+    public CartParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public List<CartLine> parse(String json) {
+        if (json == null || json.isBlank()) {
+            throw new OrderCreateException("Корзина пуста");
+        }
+        if (json.length() > MAX_JSON_LENGTH) {
+            throw new OrderCreateException("Слишком большой заказ");
+        }
+
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new OrderCreateException(INVALID_JSON_MESSAGE);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                readLine(parser, quantities);
+            }
+            if (token != JsonToken.END_ARRAY || parser.nextToken() != null) {
+                throw new OrderCreateException(INVALID_JSON_MESSAGE);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error while parsing JSON: {}", e.getMessage());
+            throw new OrderCreateException(INVALID_JSON_MESSAGE);
+        }
+
+        if (quantities.isEmpty()) {
+            throw new OrderCreateException("Корзина пуста");
+        }
+        List<CartLine> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> lines.add(new CartLine(productId, quantity)));
+        return lines;
+    }
+
+    private void readLine(JsonParser parser, Map<UUID, Integer> quantities) throws IOException {
+        UUID productId = null;
+        int quantity = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "product" -> productId = readProductId(parser, value);
+                case "quantity" -> {
+                    if (value != JsonToken.VALUE_NUMBER_INT) {
+                        throw new OrderCreateException(INVALID_JSON_MESSAGE);
+                    }
+                    quantity = parser.getIntValue();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (productId == null) {
+            throw new OrderCreateException(INVALID_JSON_MESSAGE);
+        }
+        if (quantity <= 0 || quantity > MAX_QUANTITY) {
+            throw new OrderCreateException("Некорректное количество товара в заказе");
+        }
+        int merged = quantities.merge(productId, quantity, Integer::sum);
+        if (merged > MAX_QUANTITY) {
+            throw new OrderCreateException("Некорректное количество товара в заказе");
+        }
+        if (quantities.size() > MAX_LINES) {
+            throw new OrderCreateException("Слишком много позиций в заказе");
+        }
+    }
+
+    private UUID readProductId(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            throw new OrderCreateException(INVALID_JSON_MESSAGE);
+        }
+        UUID productId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("productId".equals(field) && token == JsonToken.VALUE_STRING) {
+                productId = UUID.fromString(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return productId;
+    }
+}
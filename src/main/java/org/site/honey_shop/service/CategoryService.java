@@ -31,6 +31,7 @@ public class CategoryService {
     public String UPLOAD_DIRECTORY;
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final MainPageService mainPageService;
 
     public Category saveCategoryWithImage(Category category, MultipartFile image) {
         String imageUrl = imageSelectionProcessing(image);
@@ -44,7 +45,9 @@ public class CategoryService {
                 .visible(category.getVisible())
                 .build();
         log.info("Attempt to save category: {}", category.getName());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        mainPageService.refreshShowcaseSnapshot();
+        return savedCategory;
     }
 
     public Category updateCategoryName(Category category) {
@@ -52,7 +55,9 @@ public class CategoryService {
                 -> new IllegalArgumentException("Category not found"));
         existCategory.setName(category.getName());
         log.info("Update category: {}", category.getName());
-        return categoryRepository.save(existCategory);
+        Category savedCategory = categoryRepository.save(existCategory);
+        mainPageService.refreshShowcaseSnapshot();
+        return savedCategory;
     }
 
     public Category fullUpdateCategory(Category category, MultipartFile image) {
@@ -65,7 +70,9 @@ public class CategoryService {
         }
         existCategory.setVisible(category.getVisible());
         log.info("Full update category: {}", category.getName());
-        return categoryRepository.save(existCategory);
+        Category savedCategory = categoryRepository.save(existCategory);
+        mainPageService.refreshShowcaseSnapshot();
+        return savedCategory;
     }
 
     public List<Category> findAll() {
@@ -105,6 +112,7 @@ public class CategoryService {
         productRepository.saveAll(products);
         log.info("Delete category: {}", category.getName());
         categoryRepository.delete(category);
+        mainPageService.refreshShowcaseSnapshot();
     }
 
     public String imageSelectionProcessing(MultipartFile image) {
@@ -130,6 +138,7 @@ public class CategoryService {
         Category category = categoryRepository.findById(categoryId).orElse(null);
         category.setImageUrl(null);
         categoryRepository.save(category);
+        mainPageService.refreshShowcaseSnapshot();
         return true;
     }
 }
@@ -1,160 +1,414 @@
 package org.site.honey_shop.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.*;
-import java.util.concurrent.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Getter
 @Setter
 @Slf4j
 public class CdekCacheService {
 
+    static final String CACHE_KEY_PREFIX = "cdek::";
+    public static final String GENERATION_KEY = "cdek::generation";
+    public static final String GENERATION_CHANNEL = "cdek::generation::events";
+    static final String GENERATION_SEQUENCE_KEY = "cdek::generation::seq";
+    private static final String INITIAL_GENERATION = "0";
+    private static final String LOCK_PREFIX = "cdek::lock::";
+    private static final String BODY_FIELD = "body";
+    private static final String FETCHED_AT_FIELD = "fetchedAt";
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
     @Value("${cdek.cache.keys-list}")
     private String cdekCacheKeys;
     @Value("${cdek.cache.base-url}")
     private String baseUrl;
-    @Value("${cdek.cache.max-retries}")
-    private int maxRetries;
-    @Value("${cdek.cache.retry-delay-ms}")
-    private int retryDelayMs;
-    @Value("${cdek.cache.sleep-between-attempts-ms}")
-    private int sleepBetweenAttemptsMs;
-    @Value("${cdek.cache.timeout-minutes}")
-    private long timeoutMinutes;
+    @Value("${cdek.cache.soft-ttl-seconds:21600}")
+    private long softTtlSeconds;
+    @Value("${cdek.cache.hard-ttl-seconds:129600}")
+    private long hardTtlSeconds;
+    @Value("${cdek.cache.old-generation-ttl-seconds:300}")
+    private long oldGenerationTtlSeconds;
+    /**
+     * Must outlast one upstream call (15 s connect plus 3 min response timeout in RestTemplateConfig),
+     * otherwise a slow fetch loses its lock and a second instance starts the same request.
+     */
+    @Value("${cdek.cache.lock-ttl-ms:200000}")
+    private long lockTtlMs;
+    @Value("${cdek.cache.lock-wait-ms:10000}")
+    private long lockWaitMs;
+    @Value("${cdek.cache.lock-poll-ms:100}")
+    private long lockPollMs;
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, byte[]> payloadRedisTemplate;
     private final RestTemplate restTemplate;
-    private final ExecutorService executor;
+    private final ExecutorService refreshExecutor;
+    private final CdekLocalCache localCache;
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Counter upstreamFetches;
+    private final Counter coalescedLocal;
+    private final Counter coalescedRemote;
+    private final Counter lockWaitTimeouts;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Timer refreshLatency;
+
+    public CdekCacheService(RedisTemplate<String, String> redisTemplate,
+                            RedisTemplate<String, byte[]> payloadRedisTemplate,
+                            RestTemplate restTemplate,
+                            @Qualifier("cdekRefreshExecutor") ExecutorService refreshExecutor,
+                            CdekLocalCache localCache,
+                            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.payloadRedisTemplate = payloadRedisTemplate;
+        this.restTemplate = restTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.localCache = localCache;
+        this.hits = requestCounter("hit", meterRegistry);
+        this.staleHits = requestCounter("stale", meterRegistry);
+        this.misses = requestCounter("miss", meterRegistry);
+        this.refreshLatency = Timer.builder("cdek.cache.refresh.latency")
+                .description("Time to fetch a CDEK response and store it in the cache")
+                .register(meterRegistry);
+        this.upstreamFetches = Counter.builder("cdek.cache.upstream.fetches")
+                .description("CDEK API calls made to fill cache misses")
+                .register(meterRegistry);
+        this.coalescedLocal = Counter.builder("cdek.cache.coalesced")
+                .description("Cache misses served by another request's CDEK fetch")
+                .tag("scope", "local")
+                .register(meterRegistry);
+        this.coalescedRemote = Counter.builder("cdek.cache.coalesced")
+                .description("Cache misses served by another request's CDEK fetch")
+                .tag("scope", "remote")
+                .register(meterRegistry);
+        this.lockWaitTimeouts = Counter.builder("cdek.cache.lock.wait.timeouts")
+                .description("Cache misses that stopped waiting for another instance and fetched CDEK themselves")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("cdek.cache.requests")
+                .description("CDEK office requests by cache outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    record CachedEntry(byte[] gzippedBody, long fetchedAtMillis) {
+    }
 
     public String getOfficesWithCaching(Map<String, String> params) {
+        return new String(GzipCodec.decompress(getCompressedOffices(params)), StandardCharsets.UTF_8);
+    }
+
+    public byte[] getCompressedOffices(Map<String, String> params) {
         String cacheKey = buildCacheKey(params);
-        String cached = redisTemplate.opsForValue().get(cacheKey);
-        return cached != null ? cached : updateCache(params, cacheKey);
+        CachedEntry cached = lookup(cacheKey);
+        if (cached == null) {
+            misses.increment();
+            return loadCoalesced(params, cacheKey);
+        }
+        if (isStale(cached)) {
+            staleHits.increment();
+            refreshInBackground(params, cacheKey, cached.gzippedBody());
+        } else {
+            hits.increment();
+        }
+        return cached.gzippedBody();
     }
 
-    public String updateCache(Map<String, String> params, String cacheKey) {
-        String url = buildUrl(params);
-        log.info("Requesting CDEK API: {}", url);
+    private CachedEntry lookup(String cacheKey) {
+        CachedEntry local = localCache.get(cacheKey);
+        if (local != null && !isExpired(local)) {
+            return local;
+        }
+        long epoch = localCache.epoch();
+        CachedEntry remote = readCurrent(cacheKey);
+        if (remote != null) {
+            localCache.put(cacheKey, remote, epoch);
+        }
+        return remote;
+    }
 
-        String response = fetchCdekData(url);
-        redisTemplate.opsForValue().set(cacheKey, response);
-        redisTemplate.opsForList().rightPush(cdekCacheKeys, cacheKey);
+    private CachedEntry readCurrent(String cacheKey) {
+        String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+        if (generation == null) {
+            return null;
+        }
+        List<byte[]> fields = payloadRedisTemplate.<String, byte[]>opsForHash()
+                .multiGet(generationKey(generation, cacheKey), List.of(BODY_FIELD, FETCHED_AT_FIELD));
+        if (fields == null || fields.isEmpty() || fields.get(0) == null) {
+            return null;
+        }
+        long fetchedAt = fields.get(1) != null ? Long.parseLong(new String(fields.get(1), StandardCharsets.US_ASCII)) : 0L;
+        return new CachedEntry(fields.get(0), fetchedAt);
+    }
 
-        return response;
+    private boolean isStale(CachedEntry entry) {
+        return System.currentTimeMillis() - entry.fetchedAtMillis() > Duration.ofSeconds(softTtlSeconds).toMillis();
     }
 
-    public String buildCacheKey(Map<String, String> params) {
-        return "cdek::" + params.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(e -> e.getKey() + "=" + e.getValue())
-                .collect(Collectors.joining("&"));
+    private boolean isExpired(CachedEntry entry) {
+        return System.currentTimeMillis() - entry.fetchedAtMillis() > Duration.ofSeconds(hardTtlSeconds).toMillis();
     }
 
-    private String buildUrl(Map<String, String> params) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
-        params.forEach(builder::queryParam);
-        return builder.toUriString();
+    private void refreshInBackground(Map<String, String> params, String cacheKey, byte[] staleBody) {
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(cacheKey, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load.complete(refreshWithLock(params, cacheKey, staleBody));
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of {} failed, serving the stale copy: {}", cacheKey, e.getMessage());
+                    load.complete(staleBody);
+                } finally {
+                    inFlight.remove(cacheKey, load);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(cacheKey, load);
+            load.complete(staleBody);
+        }
     }
 
-    public String fetchCdekData(String url) {
-        String response = restTemplate.getForObject(url, String.class);
-        if (response == null || response.isBlank() || response.contains("<b>Fatal error</b>")) {
-            log.error("Error while getting data from CDEK: {}", response);
-            throw new IllegalStateException("Error while getting data from CDEK API");
+    private byte[] refreshWithLock(Map<String, String> params, String cacheKey, byte[] staleBody) {
+        long epoch = localCache.epoch();
+        CachedEntry remote = readCurrent(cacheKey);
+        if (remote != null && !isStale(remote)) {
+            localCache.put(cacheKey, remote, epoch);
+            return remote.gzippedBody();
+        }
+        String lockKey = lockKey(cacheKey);
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMs)))) {
+            return staleBody;
+        }
+        try {
+            return updateCache(params, cacheKey);
+        } finally {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), token);
         }
-        return response;
     }
 
-    @Scheduled(cron = "${cdek.cache.scheduling-cron}")
-    public void scheduledRefreshWithTimeout() {
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            Future<?> future = executor.submit(this::refreshCdekCache);
+    private byte[] loadCoalesced(Map<String, String> params, String cacheKey) {
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(cacheKey, load);
+        if (running != null) {
+            coalescedLocal.increment();
             try {
-                future.get(timeoutMinutes, TimeUnit.MINUTES);
-                log.info("Update CDEK cache completed successfully.");
-                return;
-            } catch (TimeoutException e) {
-                log.error("Attempt {}: updateCategoryName timed out after {} minutes. Cancelling...", attempt, timeoutMinutes);
-                future.cancel(true);
-            } catch (Exception e) {
-                log.error("Attempt {}: error during cache updateCategoryName", attempt, e);
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
             }
+        }
+        try {
+            byte[] response = loadWithLock(params, cacheKey);
+            load.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, load);
+        }
+    }
+
+    private byte[] loadWithLock(Map<String, String> params, String cacheKey) {
+        String lockKey = lockKey(cacheKey);
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMs)))) {
+            coalescedRemote.increment();
+            byte[] response = awaitPeer(cacheKey, lockKey);
+            if (response != null) {
+                return response;
+            }
+            lockWaitTimeouts.increment();
+            log.warn("No CDEK response for {} from the lock holder, fetching it directly", cacheKey);
+            return updateCache(params, cacheKey);
+        }
+        try {
+            CachedEntry cached = readCurrent(cacheKey);
+            return cached != null && !isStale(cached) ? cached.gzippedBody() : updateCache(params, cacheKey);
+        } finally {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), token);
+        }
+    }
 
-            if (attempt < maxRetries) {
-                log.warn("Retrying updateCategoryName in {} seconds...", retryDelayMs / 1000);
-                sleep(retryDelayMs);
-            } else {
-                log.error("Update CDEK cache failed after {} attempts.", maxRetries);
+    private byte[] awaitPeer(String cacheKey, String lockKey) {
+        long deadline = System.nanoTime() + Duration.ofMillis(lockWaitMs).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(lockPollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            CachedEntry cached = readCurrent(cacheKey);
+            if (cached != null) {
+                return cached.gzippedBody();
+            }
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(lockKey))) {
+                return null;
             }
         }
+        return null;
     }
 
-    public void refreshCdekCache() {
-        log.info("Starting refreshCdekCache...");
+    public byte[] updateCache(Map<String, String> params, String cacheKey) {
+        String url = buildUrl(params);
+        log.info("Requesting CDEK API: {}", url);
 
-        List<Map<String, String>> orderedParams = List.of(
-                Map.of("action", "offices", "is_handout", "true", "page", "0"),
-                Map.of("action", "offices", "is_handout", "true", "page", "1", "size", "1")
-        );
+        upstreamFetches.increment();
+        long epoch = localCache.epoch();
+        long start = System.nanoTime();
+        byte[] compressed = GzipCodec.compress(fetchCdekData(url).getBytes(StandardCharsets.UTF_8));
+        String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+        if (generation == null) {
+            redisTemplate.opsForValue().setIfAbsent(GENERATION_KEY, INITIAL_GENERATION);
+            generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+        }
+        CachedEntry entry = new CachedEntry(compressed, System.currentTimeMillis());
+        store(generation, cacheKey, entry);
+        localCache.put(cacheKey, entry, epoch);
+        refreshLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            if (Thread.currentThread().isInterrupted()) {
-                log.warn("Thread interrupted. Aborting refresh.");
-                return;
-            }
+        return compressed;
+    }
 
-            List<String> loadedKeys = new ArrayList<>();
-            boolean allSuccess = true;
+    public String beginGeneration() {
+        return String.valueOf(redisTemplate.opsForValue().increment(GENERATION_SEQUENCE_KEY));
+    }
 
-            for (Map<String, String> params : orderedParams) {
-                String cacheKey = buildCacheKey(params);
-                String url = buildUrl(params);
-                try {
-                    String response = fetchCdekData(url);
-                    redisTemplate.opsForValue().set(cacheKey, response);
-                    loadedKeys.add(cacheKey);
-                    log.info("Loaded cache key: {}", cacheKey);
-                } catch (Exception e) {
-                    log.error("Failed to load key {}: {}", cacheKey, e.getMessage());
-                    allSuccess = false;
-                    break;
-                }
-            }
+    public void storeInGeneration(String generation, String cacheKey, String response) {
+        byte[] compressed = GzipCodec.compress(response.getBytes(StandardCharsets.UTF_8));
+        store(generation, cacheKey, new CachedEntry(compressed, System.currentTimeMillis()));
+    }
 
-            if (allSuccess && loadedKeys.size() == orderedParams.size()) {
-                redisTemplate.opsForList().rightPushAll(cdekCacheKeys, loadedKeys);
-                log.info("Successfully refreshed all CDEK cache keys.");
-                return;
-            } else {
-                redisTemplate.delete(loadedKeys);
-                log.warn("Attempt {}/{} failed. Retrying...", attempt, maxRetries);
-                sleep(sleepBetweenAttemptsMs);
-            }
+    private void store(String generation, String cacheKey, CachedEntry entry) {
+        String key = generationKey(generation, cacheKey);
+        payloadRedisTemplate.<String, byte[]>opsForHash().putAll(key, Map.of(
+                BODY_FIELD, entry.gzippedBody(),
+                FETCHED_AT_FIELD, String.valueOf(entry.fetchedAtMillis()).getBytes(StandardCharsets.US_ASCII)));
+        redisTemplate.expire(key, Duration.ofSeconds(hardTtlSeconds));
+        redisTemplate.opsForSet().add(registryKey(generation), key);
+    }
+
+    public void activateGeneration(String generation) {
+        String previous = redisTemplate.opsForValue().getAndSet(GENERATION_KEY, generation);
+        log.info("CDEK cache switched to generation {} (previous {})", generation, previous);
+        localCache.invalidateAll();
+        redisTemplate.convertAndSend(GENERATION_CHANNEL, generation);
+        if (previous != null && !previous.equals(generation)) {
+            expireGeneration(previous, Duration.ofSeconds(oldGenerationTtlSeconds));
+        }
+        if (previous == null || INITIAL_GENERATION.equals(previous)) {
+            deleteLegacyKeys();
         }
+    }
 
-        log.error("Failed to refresh CDEK cache after {} attempts.", maxRetries);
+    /**
+     * Drops the plain {@code cdek::<params>} strings and the {@code cdek::keys} list written before cache
+     * entries moved into generations; nothing reads them any more and they carry no TTL.
+     */
+    private void deleteLegacyKeys() {
+        List<String> legacyKeys = redisTemplate.opsForList().range(cdekCacheKeys, 0, -1);
+        List<String> keys = new ArrayList<>(legacyKeys == null ? List.of() : legacyKeys);
+        keys.add(cdekCacheKeys);
+        Long deleted = redisTemplate.delete(keys);
+        log.info("Removed {} legacy CDEK cache keys", deleted);
     }
 
-    public void sleep(int millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Sleep interrupted. Exiting.");
+    public void discardGeneration(String generation) {
+        expireGeneration(generation, Duration.ZERO);
+    }
+
+    private void expireGeneration(String generation, Duration ttl) {
+        String registryKey = registryKey(generation);
+        Set<String> keys = redisTemplate.opsForSet().members(registryKey);
+        List<String> allKeys = new ArrayList<>(keys == null ? Set.of() : keys);
+        allKeys.add(registryKey);
+        if (ttl.isZero()) {
+            redisTemplate.delete(allKeys);
+            return;
         }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : allKeys) {
+                connection.keyCommands().expire(key.getBytes(StandardCharsets.UTF_8), ttl.toSeconds());
+            }
+            return null;
+        });
+    }
+
+    public String generationKey(String generation, String cacheKey) {
+        return "cdek::g" + generation + "::" + cacheKey.substring(CACHE_KEY_PREFIX.length());
+    }
+
+    private String lockKey(String cacheKey) {
+        return LOCK_PREFIX + cacheKey.substring(CACHE_KEY_PREFIX.length());
+    }
+
+    private String registryKey(String generation) {
+        return cdekCacheKeys + "::" + generation;
+    }
+
+    public String buildCacheKey(Map<String, String> params) {
+        return CACHE_KEY_PREFIX + params.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining("&"));
+    }
+
+    public String fetchOffices(Map<String, String> params) {
+        return fetchCdekData(buildUrl(params));
+    }
+
+    private String buildUrl(Map<String, String> params) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUrl);
+        params.forEach(builder::queryParam);
+        return builder.toUriString();
     }
-}
 
+    public String fetchCdekData(String url) {
+        String response = restTemplate.getForObject(url, String.class);
+        if (response == null || response.isBlank() || response.contains("<b>Fatal error</b>")) {
+            log.error("Error while getting data from CDEK: {}", response);
+            throw new IllegalStateException("Error while getting data from CDEK API");
+        }
+        return response;
+    }
+}
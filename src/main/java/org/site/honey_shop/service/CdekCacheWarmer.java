@@ -0,0 +1,351 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the CDEK office list into Redis. The list request the widget sends is fetched concurrently in pages
+ * of an explicit {@code size}, in a sliding window until the first page shorter than {@code size} marks the
+ * end of the list, and the pages are joined back into the single response stored under the widget's key.
+ * When the upstream turns out not to paginate, the list is loaded in one request instead. Every request is
+ * retried on its own with exponential backoff, so one slow or failing page no longer restarts the whole set.
+ * Responses are written into a fresh cache generation that replaces the served one only after the whole
+ * list has loaded.
+ */
+@Service
+@Getter
+@Setter
+@Slf4j
+public class CdekCacheWarmer {
+
+    public record WarmupResult(int loadedPages, int failedPages, int discoveredPages, boolean activated) {
+    }
+
+    private record PageResult(int page, int items) {
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Value("${cdek.warmup.list-request:action=offices&is_handout=true&page=0}")
+    private String listRequest;
+    @Value("${cdek.warmup.page-size:1000}")
+    private int pageSize;
+    @Value("${cdek.warmup.extra-requests:action=offices&is_handout=true&page=1&size=1}")
+    private List<String> extraRequests;
+    @Value("${cdek.warmup.parallelism:4}")
+    private int parallelism;
+    @Value("${cdek.warmup.max-pages:500}")
+    private int maxPages;
+    @Value("${cdek.warmup.page-attempts:5}")
+    private int pageAttempts;
+    @Value("${cdek.warmup.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+    @Value("${cdek.warmup.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    private final CdekCacheService cdekCacheService;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final Counter retries;
+    private final Timer warmupDuration;
+    private final AtomicInteger loadedPages = new AtomicInteger();
+    private final AtomicInteger failedPages = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CdekCacheWarmer(CdekCacheService cdekCacheService,
+                           @Qualifier("cdekWarmupExecutor") ExecutorService executor,
+                           MeterRegistry meterRegistry) {
+        this.cdekCacheService = cdekCacheService;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.retries = Counter.builder("cdek.warmup.retries")
+                .description("CDEK page fetches retried during warm-up")
+                .register(meterRegistry);
+        this.warmupDuration = Timer.builder("cdek.warmup.duration")
+                .description("Duration of a full CDEK cache warm-up")
+                .register(meterRegistry);
+        Gauge.builder("cdek.warmup.pages.loaded", loadedPages, AtomicInteger::get)
+                .description("Pages loaded by the running or last CDEK warm-up")
+                .register(meterRegistry);
+        Gauge.builder("cdek.warmup.pages.failed", failedPages, AtomicInteger::get)
+                .description("Pages that exhausted their retries in the running or last CDEK warm-up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands the run to {@code cdekWarmupExecutor} so the minutes-long warm-up never holds a scheduler thread.
+     */
+    @Scheduled(cron = "${cdek.cache.scheduling-cron}")
+    public void scheduleWarmUp() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous CDEK warm-up is still running, skipping this one");
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    warmUp();
+                } catch (RuntimeException e) {
+                    log.error("CDEK warm-up failed: {}", e.getMessage(), e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            log.warn("CDEK warm-up rejected: {}", e.getMessage());
+        }
+    }
+
+    public WarmupResult warmUp() {
+        return warmupDuration.record(this::runWarmup);
+    }
+
+    private WarmupResult runWarmup() {
+        log.info("Starting CDEK cache warm-up with parallelism {} and page size {}", parallelism, pageSize);
+        loadedPages.set(0);
+        failedPages.set(0);
+
+        String generation = cdekCacheService.beginGeneration();
+        CompletionService<PageResult> completionService = new ExecutorCompletionService<>(executor);
+        Map<String, String> listParams = parseQuery(listRequest);
+        Map<Integer, String> pages = new ConcurrentHashMap<>();
+        int submitted = 0;
+        int inFlight = 0;
+        int lastPage = Integer.MAX_VALUE;
+        int lastNonEmptyPage = -1;
+        Set<Integer> failedListPages = new TreeSet<>();
+        boolean requestFailed = false;
+        boolean unpaged = false;
+
+        for (String extraRequest : extraRequests) {
+            Map<String, String> params = parseQuery(extraRequest);
+            completionService.submit(() -> loadAndStore(generation, params));
+            inFlight++;
+        }
+        while (submitted < parallelism && submitted < maxPages) {
+            int page = submitted++;
+            completionService.submit(() -> loadPage(page, withPage(listParams, page), pages));
+            inFlight++;
+        }
+
+        while (inFlight > 0 && !Thread.currentThread().isInterrupted()) {
+            PageResult result = awaitNext(completionService);
+            inFlight--;
+            if (result == null) {
+                failedPages.incrementAndGet();
+                requestFailed = true;
+            } else if (result.items() < 0) {
+                failedPages.incrementAndGet();
+                failedListPages.add(result.page());
+            } else {
+                loadedPages.incrementAndGet();
+                if (result.page() >= 0 && result.items() < pageSize) {
+                    lastPage = Math.min(lastPage, result.page());
+                }
+                if (result.items() > 0) {
+                    lastNonEmptyPage = Math.max(lastNonEmptyPage, result.page());
+                }
+                if (result.items() > pageSize || repeatsFirstPage(pages)) {
+                    unpaged = true;
+                }
+            }
+            if (lastPage == Integer.MAX_VALUE && !unpaged && submitted < maxPages) {
+                int page = submitted++;
+                completionService.submit(() -> loadPage(page, withPage(listParams, page), pages));
+                inFlight++;
+            }
+            log.debug("CDEK warm-up progress: {} loaded, {} failed, {} in flight",
+                    loadedPages.get(), failedPages.get(), inFlight);
+        }
+
+        boolean listLoaded;
+        int discovered;
+        if (unpaged) {
+            log.warn("CDEK upstream ignores page/size, loading the office list in a single request");
+            listLoaded = loadUnpaged(generation, listParams);
+            discovered = 1;
+        } else {
+            listLoaded = lastPage != Integer.MAX_VALUE;
+            discovered = listLoaded ? lastPage + 1 : submitted;
+        }
+        int lastListPage = lastNonEmptyPage;
+        boolean pagesLoaded = unpaged || failedListPages.stream().allMatch(page -> page > lastListPage);
+        boolean complete = !requestFailed && pagesLoaded && listLoaded;
+        if (complete && !unpaged) {
+            if (!failedListPages.isEmpty()) {
+                log.info("CDEK pages {} failed after the last non-empty page {}, treating them as the end of the list",
+                        failedListPages, lastListPage);
+            }
+            cdekCacheService.storeInGeneration(generation, cdekCacheService.buildCacheKey(listParams),
+                    joinPages(pages, lastListPage));
+        }
+        if (complete) {
+            cdekCacheService.activateGeneration(generation);
+        } else {
+            cdekCacheService.discardGeneration(generation);
+            log.warn("CDEK warm-up incomplete ({} failed pages, end of list {}), keeping the previous generation",
+                    failedPages.get(), listLoaded ? "reached" : "not reached");
+        }
+        log.info("CDEK cache warm-up finished: {} pages loaded, {} failed, {} pages in the office list",
+                loadedPages.get(), failedPages.get(), discovered);
+        return new WarmupResult(loadedPages.get(), failedPages.get(), discovered, complete);
+    }
+
+    /**
+     * Returns the page's item count, or -1 once the page has exhausted its retries; whether that failure
+     * matters is only known when the end of the list has been found.
+     */
+    private PageResult loadPage(int page, Map<String, String> params, Map<Integer, String> pages) throws InterruptedException {
+        try {
+            String body = fetchWithRetry(params);
+            pages.put(page, body);
+            return new PageResult(page, countItems(body, pageSize + 1));
+        } catch (RuntimeException e) {
+            log.error("CDEK warm-up page failed: {}", e.getMessage());
+            return new PageResult(page, -1);
+        }
+    }
+
+    private PageResult loadAndStore(String generation, Map<String, String> params) throws InterruptedException {
+        String body = fetchWithRetry(params);
+        cdekCacheService.storeInGeneration(generation, cdekCacheService.buildCacheKey(params), body);
+        return new PageResult(-1, 0);
+    }
+
+    private boolean loadUnpaged(String generation, Map<String, String> listParams) {
+        try {
+            loadAndStore(generation, listParams);
+            loadedPages.incrementAndGet();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("CDEK office list failed: {}", e.getMessage());
+            failedPages.incrementAndGet();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("CDEK warm-up interrupted");
+            return false;
+        }
+    }
+
+    private String fetchWithRetry(Map<String, String> params) throws InterruptedException {
+        String cacheKey = cdekCacheService.buildCacheKey(params);
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                String body = cdekCacheService.fetchOffices(params);
+                if (countItems(body, 0) < 0) {
+                    throw new IllegalStateException("CDEK returned no office list");
+                }
+                pageTimer("success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return body;
+            } catch (RuntimeException e) {
+                pageTimer("failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (attempt >= pageAttempts) {
+                    throw new IllegalStateException("CDEK page " + cacheKey + " failed after " + attempt + " attempts", e);
+                }
+                retries.increment();
+                log.warn("CDEK page {} failed on attempt {}/{}: {}, retrying in {} ms",
+                        cacheKey, attempt, pageAttempts, e.getMessage(), backoffMs);
+                Thread.sleep(backoffMs + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1));
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    private PageResult awaitNext(CompletionService<PageResult> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (ExecutionException e) {
+            log.error("CDEK warm-up page failed: {}", e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("CDEK warm-up interrupted");
+            return null;
+        }
+    }
+
+    private Timer pageTimer(String outcome) {
+        return Timer.builder("cdek.warmup.page.latency")
+                .description("Latency of a single CDEK page fetch during warm-up")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the elements of a JSON array body, stopping at {@code limit}; returns -1 for anything but an array.
+     */
+    static int countItems(String body, int limit) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return -1;
+            }
+            int items = 0;
+            while (items < limit && parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                items++;
+            }
+            return items;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A second page identical to a full first page means the upstream ignores {@code page}.
+     */
+    private boolean repeatsFirstPage(Map<Integer, String> pages) {
+        String first = pages.get(0);
+        return first != null && first.equals(pages.get(1)) && countItems(first, pageSize) == pageSize;
+    }
+
+    static String joinPages(Map<Integer, String> pages, int lastPage) {
+        StringJoiner list = new StringJoiner(",", "[", "]");
+        for (int page = 0; page <= lastPage; page++) {
+            String body = pages.get(page).trim();
+            String items = body.substring(1, body.length() - 1).trim();
+            if (!items.isEmpty()) {
+                list.add(items);
+            }
+        }
+        return list.toString();
+    }
+
+    private Map<String, String> withPage(Map<String, String> params, int page) {
+        Map<String, String> pageParams = new LinkedHashMap<>(params);
+        pageParams.put("page", String.valueOf(page));
+        pageParams.put("size", String.valueOf(pageSize));
+        return pageParams;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        return UriComponentsBuilder.fromUriString("?" + query).build().getQueryParams().toSingleValueMap();
+    }
+}
@@ -0,0 +1,123 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.service.CdekCacheService.CachedEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process LRU in front of the Redis CDEK cache, bounded by the approximate heap size of the cached
+ * gzip payloads rather than by entry count. Every instance drops its entries when a new cache generation
+ * is announced on {@link CdekCacheService#GENERATION_CHANNEL}.
+ */
+@Component
+@Slf4j
+public class CdekLocalCache implements MessageListener {
+
+    private static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    @Setter
+    @Value("${cdek.cache.l1.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<String, CachedEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final Counter evictions;
+
+    public CdekLocalCache(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cdek.cache.l1.requests", hitCount, AtomicLong::get)
+                .description("CDEK lookups answered by the in-process cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cdek.cache.l1.requests", missCount, AtomicLong::get)
+                .description("CDEK lookups answered by the in-process cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cdek.cache.l1.hit.ratio", this, CdekLocalCache::hitRatio)
+                .description("Share of CDEK lookups answered by the in-process cache")
+                .register(meterRegistry);
+        Gauge.builder("cdek.cache.l1.bytes", usedBytes, AtomicLong::get)
+                .description("Estimated heap held by the in-process CDEK cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("cdek.cache.l1.entries", this, CdekLocalCache::size)
+                .description("Entries in the in-process CDEK cache")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cdek.cache.l1.evictions")
+                .description("Entries evicted from the in-process CDEK cache to stay within its byte budget")
+                .register(meterRegistry);
+    }
+
+    public synchronized CachedEntry get(String cacheKey) {
+        CachedEntry entry = entries.get(cacheKey);
+        (entry != null ? hitCount : missCount).incrementAndGet();
+        return entry;
+    }
+
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Stores the entry unless the cache was invalidated after {@code readEpoch}, so a reader that raced
+     * with a generation switch cannot put the previous generation's payload back.
+     */
+    public synchronized void put(String cacheKey, CachedEntry entry, long readEpoch) {
+        long weight = weigh(cacheKey, entry);
+        if (readEpoch != epoch.get() || weight > maxBytes) {
+            return;
+        }
+        CachedEntry previous = entries.put(cacheKey, entry);
+        usedBytes.addAndGet(weight - (previous != null ? weigh(cacheKey, previous) : 0));
+        Iterator<Map.Entry<String, CachedEntry>> eldest = entries.entrySet().iterator();
+        while (usedBytes.get() > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, CachedEntry> evicted = eldest.next();
+            eldest.remove();
+            usedBytes.addAndGet(-weigh(evicted.getKey(), evicted.getValue()));
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        epoch.incrementAndGet();
+        entries.clear();
+        usedBytes.set(0);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        log.info("CDEK cache generation {} published, clearing the in-process cache",
+                new String(message.getBody(), StandardCharsets.UTF_8));
+        invalidateAll();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static long weigh(String cacheKey, CachedEntry entry) {
+        return 2L * cacheKey.length() + entry.gzippedBody().length + ENTRY_OVERHEAD_BYTES;
+    }
+}
@@ -0,0 +1,275 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Read-only spatial index over one CDEK office list. Offices stay as slices of the original JSON, so
+ * matching offices are written back byte for byte; coordinates live in primitive arrays and are bucketed
+ * into a lat/lon grid, with a separate lookup by {@code location.city_code}.
+ */
+public final class CdekOfficeIndex {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final byte[] json;
+    private final int[] start;
+    private final int[] end;
+    private final float[] lat;
+    private final float[] lon;
+    private final double cellDegrees;
+    private final Map<Long, int[]> cells;
+    private final Map<Integer, int[]> byCity;
+    private final int locatedOffices;
+    private final int[] gridBounds;
+
+    private CdekOfficeIndex(byte[] json, int[] start, int[] end, float[] lat, float[] lon,
+                            double cellDegrees, Map<Long, int[]> cells, Map<Integer, int[]> byCity, int locatedOffices,
+                            int[] gridBounds) {
+        this.json = json;
+        this.start = start;
+        this.end = end;
+        this.lat = lat;
+        this.lon = lon;
+        this.cellDegrees = cellDegrees;
+        this.cells = cells;
+        this.byCity = byCity;
+        this.locatedOffices = locatedOffices;
+        this.gridBounds = gridBounds;
+    }
+
+    public static CdekOfficeIndex build(byte[] json, double cellDegrees) {
+        List<int[]> ranges = new ArrayList<>();
+        List<float[]> coordinates = new ArrayList<>();
+        Map<Integer, List<Integer>> cities = new HashMap<>();
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int from = (int) parser.currentTokenLocation().getByteOffset();
+                    JsonNode office = parser.readValueAsTree();
+                    int to = (int) parser.currentLocation().getByteOffset();
+                    JsonNode location = office.path("location");
+                    if (location.path("city_code").canConvertToInt()) {
+                        cities.computeIfAbsent(location.path("city_code").asInt(), code -> new ArrayList<>()).add(ranges.size());
+                    }
+                    ranges.add(new int[]{from, to});
+                    coordinates.add(location.path("latitude").isNumber() && location.path("longitude").isNumber()
+                            ? new float[]{location.path("latitude").floatValue(), location.path("longitude").floatValue()}
+                            : null);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed CDEK office list", e);
+        }
+
+        int size = ranges.size();
+        int[] start = new int[size];
+        int[] end = new int[size];
+        float[] lat = new float[size];
+        float[] lon = new float[size];
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        int[] gridBounds = {Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        int located = 0;
+        for (int i = 0; i < size; i++) {
+            start[i] = ranges.get(i)[0];
+            end[i] = ranges.get(i)[1];
+            float[] point = coordinates.get(i);
+            lat[i] = point != null ? point[0] : Float.NaN;
+            lon[i] = point != null ? point[1] : Float.NaN;
+            if (point != null) {
+                int latCell = cell(point[0], cellDegrees);
+                int lonCell = cell(point[1], cellDegrees);
+                grid.computeIfAbsent(cellKey(latCell, lonCell), key -> new ArrayList<>()).add(i);
+                gridBounds[0] = Math.min(gridBounds[0], latCell);
+                gridBounds[1] = Math.max(gridBounds[1], latCell);
+                gridBounds[2] = Math.min(gridBounds[2], lonCell);
+                gridBounds[3] = Math.max(gridBounds[3], lonCell);
+                located++;
+            }
+        }
+        Map<Long, int[]> cells = new HashMap<>(grid.size() * 2);
+        grid.forEach((key, ids) -> cells.put(key, toArray(ids)));
+        Map<Integer, int[]> byCity = new HashMap<>(cities.size() * 2);
+        cities.forEach((code, ids) -> byCity.put(code, toArray(ids)));
+        return new CdekOfficeIndex(json, start, end, lat, lon, cellDegrees, cells, byCity, located, gridBounds);
+    }
+
+    public int size() {
+        return start.length;
+    }
+
+    public int[] select(CdekOfficeQuery query) {
+        int[] candidates = null;
+        if (query.cityCode() != null) {
+            candidates = byCity.getOrDefault(query.cityCode(), new int[0]);
+            if (query.hasBoundingBox()) {
+                candidates = Arrays.stream(candidates).filter(id -> inBox(id, query)).toArray();
+            }
+        } else if (query.hasBoundingBox()) {
+            candidates = withinBox(query);
+        }
+        if (query.hasNearPoint()) {
+            return candidates != null
+                    ? nearestAmong(candidates, query.nearLat(), query.nearLon(), query.limit())
+                    : nearest(query.nearLat(), query.nearLon(), query.limit());
+        }
+        int[] matched = candidates != null ? candidates : new int[0];
+        return matched.length > query.limit() ? Arrays.copyOf(matched, query.limit()) : matched;
+    }
+
+    public byte[] toJson(int[] ids) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.length * 512 + 2);
+        out.write('[');
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(json, start[ids[i]], end[ids[i]] - start[ids[i]]);
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Looks up the grid cells covered by the box, or filters every occupied cell when the box spans more
+     * cells than the index holds.
+     */
+    private int[] withinBox(CdekOfficeQuery query) {
+        List<Integer> matched = new ArrayList<>();
+        int minLatCell = Math.max(cell(query.minLat(), cellDegrees), gridBounds[0]);
+        int maxLatCell = Math.min(cell(query.maxLat(), cellDegrees), gridBounds[1]);
+        int minLonCell = Math.max(cell(query.minLon(), cellDegrees), gridBounds[2]);
+        int maxLonCell = Math.min(cell(query.maxLon(), cellDegrees), gridBounds[3]);
+        long boxCells = Math.max(0, (long) maxLatCell - minLatCell + 1) * Math.max(0, (long) maxLonCell - minLonCell + 1);
+        if (boxCells > cells.size()) {
+            for (int[] ids : cells.values()) {
+                for (int id : ids) {
+                    if (inBox(id, query)) {
+                        matched.add(id);
+                    }
+                }
+            }
+        } else {
+            for (int i = minLatCell; i <= maxLatCell; i++) {
+                for (int j = minLonCell; j <= maxLonCell; j++) {
+                    for (int id : cells.getOrDefault(cellKey(i, j), new int[0])) {
+                        if (inBox(id, query)) {
+                            matched.add(id);
+                        }
+                    }
+                }
+            }
+        }
+        int[] ids = toArray(matched);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private boolean inBox(int id, CdekOfficeQuery query) {
+        return lat[id] >= query.minLat() && lat[id] <= query.maxLat()
+                && lon[id] >= query.minLon() && lon[id] <= query.maxLon();
+    }
+
+    private int[] nearestAmong(int[] candidates, double pointLat, double pointLon, int limit) {
+        return Arrays.stream(candidates)
+                .filter(id -> !Float.isNaN(lat[id]))
+                .boxed()
+                .sorted(Comparator.comparingDouble(id -> distanceKm(pointLat, pointLon, lat[id], lon[id])))
+                .limit(limit)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Walks the border cells of square rings around the point, limited to the cells that hold offices, and
+     * stops once nothing outside the rings seen so far can be closer than the worst of the {@code limit}
+     * offices found.
+     */
+    private int[] nearest(double pointLat, double pointLon, int limit) {
+        PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble((double[] c) -> c[1]).reversed());
+        int centerLat = cell(pointLat, cellDegrees);
+        int centerLon = cell(pointLon, cellDegrees);
+        int maxRing = Math.max(Math.max(centerLat - gridBounds[0], gridBounds[1] - centerLat),
+                Math.max(centerLon - gridBounds[2], gridBounds[3] - centerLon));
+        int visited = 0;
+        for (int ring = 0; ring <= maxRing && visited < locatedOffices; ring++) {
+            int top = centerLat - ring;
+            int bottom = centerLat + ring;
+            for (int j = Math.max(centerLon - ring, gridBounds[2]); j <= Math.min(centerLon + ring, gridBounds[3]); j++) {
+                if (top >= gridBounds[0] && top <= gridBounds[1]) {
+                    visited += visitCell(top, j, pointLat, pointLon, limit, best);
+                }
+                if (bottom != top && bottom >= gridBounds[0] && bottom <= gridBounds[1]) {
+                    visited += visitCell(bottom, j, pointLat, pointLon, limit, best);
+                }
+            }
+            for (int i = Math.max(top + 1, gridBounds[0]); i <= Math.min(bottom - 1, gridBounds[1]); i++) {
+                visited += visitCell(i, centerLon - ring, pointLat, pointLon, limit, best);
+                visited += visitCell(i, centerLon + ring, pointLat, pointLon, limit, best);
+            }
+            if (best.size() == limit && best.peek()[1] <= outsideRingKm(pointLat, ring)) {
+                break;
+            }
+        }
+        int[] ids = new int[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = (int) best.poll()[0];
+        }
+        return ids;
+    }
+
+    private int visitCell(int latCell, int lonCell, double pointLat, double pointLon, int limit, PriorityQueue<double[]> best) {
+        int[] ids = cells.get(cellKey(latCell, lonCell));
+        if (ids == null) {
+            return 0;
+        }
+        for (int id : ids) {
+            best.add(new double[]{id, distanceKm(pointLat, pointLon, lat[id], lon[id])});
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        return ids.length;
+    }
+
+    /**
+     * Lower bound of the distance to any office outside rings {@code 0..ring}: such an office differs from
+     * the point by more than {@code ring} cells either in latitude or in longitude. Along a meridian that is
+     * a plain arc; across meridians it is the distance from the point to the nearest such meridian.
+     */
+    private double outsideRingKm(double pointLat, int ring) {
+        double degrees = ring * cellDegrees;
+        double alongMeridian = Math.toRadians(degrees) * EARTH_RADIUS_KM;
+        double acrossMeridians = EARTH_RADIUS_KM * Math.asin(Math.min(1,
+                Math.cos(Math.toRadians(pointLat)) * Math.sin(Math.toRadians(Math.min(90, degrees)))));
+        return Math.min(alongMeridian, acrossMeridians);
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int cell(double degrees, double cellDegrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,119 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+@Setter
+@Slf4j
+public class CdekOfficeIndexService {
+
+    /**
+     * Filters of the CDEK {@code deliverypoints} list that are passed on to the office list request; any
+     * other parameter is dropped so it can neither split the cache nor evict indexes.
+     */
+    static final Set<String> LIST_PARAMS = Set.of("action", "postal_code", "city_code", "country_code",
+            "region_code", "fias_guid", "code", "type", "have_cashless", "have_cash", "allowed_cod",
+            "is_dressing_room", "is_handout", "is_reception", "is_ltl", "fulfillment", "take_only",
+            "weight_max", "weight_min", "lang", "page", "size");
+
+    private record IndexedPayload(byte[] gzipped, CdekOfficeIndex index) {
+    }
+
+    @Value("${cdek.geo.cell-degrees:0.5}")
+    private double cellDegrees;
+    @Value("${cdek.geo.max-results:500}")
+    private int maxResults;
+    @Value("${cdek.geo.max-indexes:8}")
+    private int maxIndexes;
+
+    private final CdekCacheService cdekCacheService;
+    private final Map<String, IndexedPayload> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<String, CompletableFuture<IndexedPayload>> building = new ConcurrentHashMap<>();
+    private final Timer buildTimer;
+    private final Counter queries;
+
+    public CdekOfficeIndexService(CdekCacheService cdekCacheService, MeterRegistry meterRegistry) {
+        this.cdekCacheService = cdekCacheService;
+        this.buildTimer = Timer.builder("cdek.geo.index.build")
+                .description("Time to parse a CDEK office list into the geo index")
+                .register(meterRegistry);
+        this.queries = Counter.builder("cdek.geo.queries")
+                .description("CDEK office requests answered from the geo index")
+                .register(meterRegistry);
+    }
+
+    public byte[] findOffices(Map<String, String> params) {
+        CdekOfficeQuery query = CdekOfficeQuery.parse(params, maxResults);
+        Map<String, String> listParams = new LinkedHashMap<>();
+        params.forEach((name, value) -> {
+            if (LIST_PARAMS.contains(name)) {
+                listParams.put(name, value);
+            }
+        });
+
+        byte[] gzipped = cdekCacheService.getCompressedOffices(listParams);
+        CdekOfficeIndex index = indexFor(cdekCacheService.buildCacheKey(listParams), gzipped);
+        queries.increment();
+        return index.toJson(index.select(query));
+    }
+
+    /**
+     * Payloads are compared by identity: the office cache hands out the same array until it loads a new
+     * response, so a different array is the signal to rebuild. Rebuilds run outside the LRU lock and only
+     * once per key; concurrent callers wait for that build.
+     */
+    private CdekOfficeIndex indexFor(String cacheKey, byte[] gzipped) {
+        IndexedPayload indexed = cached(cacheKey);
+        if (indexed != null && indexed.gzipped() == gzipped) {
+            return indexed.index();
+        }
+        CompletableFuture<IndexedPayload> build = new CompletableFuture<>();
+        CompletableFuture<IndexedPayload> running = building.putIfAbsent(cacheKey, build);
+        if (running != null) {
+            try {
+                return running.join().index();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            CdekOfficeIndex index = buildTimer.record(() ->
+                    CdekOfficeIndex.build(GzipCodec.decompress(gzipped), cellDegrees));
+            log.info("Built CDEK geo index for {}: {} offices", cacheKey, index.size());
+            IndexedPayload built = new IndexedPayload(gzipped, index);
+            store(cacheKey, built);
+            build.complete(built);
+            return index;
+        } catch (RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(cacheKey, build);
+        }
+    }
+
+    private synchronized IndexedPayload cached(String cacheKey) {
+        return indexes.get(cacheKey);
+    }
+
+    private synchronized void store(String cacheKey, IndexedPayload indexed) {
+        indexes.put(cacheKey, indexed);
+        while (indexes.size() > maxIndexes) {
+            indexes.remove(indexes.keySet().iterator().next());
+        }
+    }
+}
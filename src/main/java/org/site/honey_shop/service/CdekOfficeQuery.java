@@ -0,0 +1,88 @@
+package org.site.honey_shop.service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Geo filter of {@code GET /cdek/offices}: {@code bbox=minLon,minLat,maxLon,maxLat}, {@code near=lat,lon},
+ * {@code geo_city=<CDEK city code>} and {@code limit}. None of these parameters is forwarded to CDEK.
+ */
+public record CdekOfficeQuery(Double minLon, Double minLat, Double maxLon, Double maxLat,
+                              Double nearLat, Double nearLon, Integer cityCode, int limit) {
+
+    public static final Set<String> PARAMS = Set.of("bbox", "near", "geo_city", "limit");
+    private static final int DEFAULT_NEAREST = 10;
+
+    public static boolean isGeoQuery(Map<String, String> params) {
+        return params.containsKey("bbox") || params.containsKey("near") || params.containsKey("geo_city");
+    }
+
+    public static CdekOfficeQuery parse(Map<String, String> params, int maxResults) {
+        double[] bbox = numbers(params.get("bbox"), 4, "bbox");
+        double[] near = numbers(params.get("near"), 2, "near");
+        if (bbox != null && !(isLongitude(bbox[0]) && isLatitude(bbox[1]) && isLongitude(bbox[2]) && isLatitude(bbox[3]))) {
+            throw new IllegalArgumentException("Параметр bbox выходит за допустимые координаты");
+        }
+        if (near != null && !(isLatitude(near[0]) && isLongitude(near[1]))) {
+            throw new IllegalArgumentException("Параметр near выходит за допустимые координаты");
+        }
+        Integer cityCode = null;
+        int limit = near != null ? DEFAULT_NEAREST : maxResults;
+        try {
+            if (params.get("geo_city") != null) {
+                cityCode = Integer.parseInt(params.get("geo_city").trim());
+            }
+            if (params.get("limit") != null) {
+                limit = Integer.parseInt(params.get("limit").trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный параметр geo_city или limit");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Параметр limit должен быть положительным");
+        }
+        if (bbox != null && (bbox[0] > bbox[2] || bbox[1] > bbox[3])) {
+            throw new IllegalArgumentException("Некорректный параметр bbox");
+        }
+        return new CdekOfficeQuery(
+                bbox != null ? bbox[0] : null, bbox != null ? bbox[1] : null,
+                bbox != null ? bbox[2] : null, bbox != null ? bbox[3] : null,
+                near != null ? near[0] : null, near != null ? near[1] : null,
+                cityCode, Math.min(limit, maxResults));
+    }
+
+    public boolean hasBoundingBox() {
+        return minLon != null;
+    }
+
+    public boolean hasNearPoint() {
+        return nearLat != null;
+    }
+
+    private static boolean isLatitude(double value) {
+        return value >= -90 && value <= 90;
+    }
+
+    private static boolean isLongitude(double value) {
+        return value >= -180 && value <= 180;
+    }
+
+    private static double[] numbers(String value, int count, String name) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != count) {
+            throw new IllegalArgumentException("Некорректный параметр " + name);
+        }
+        double[] numbers = new double[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                numbers[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный параметр " + name);
+        }
+        return numbers;
+    }
+}
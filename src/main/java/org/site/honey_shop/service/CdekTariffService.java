@@ -0,0 +1,263 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memoizes {@code action=calculate} requests of the CDEK widget. Package weight and dimensions are rounded
+ * up to configurable steps and locations are reduced to their CDEK city code, so carts of similar size
+ * between the same cities share one quote. Only the fields in {@link #REQUEST_FIELDS} survive, so the
+ * bucketed request is both the cache key and what gets sent to CDEK, which keeps a cached quote identical
+ * to the one CDEK would return for it and never below the exact one.
+ */
+@Service
+@Setter
+@Slf4j
+public class CdekTariffService {
+
+    private static final String[] REQUEST_FIELDS = {"action", "type", "tariff_code", "currency", "lang"};
+    private static final String[] LOCATIONS = {"from_location", "to_location"};
+    private static final String[] PACKAGE_DIMENSIONS = {"length", "width", "height"};
+
+    private record CachedQuote(byte[] body, long expiresAtNanos) {
+    }
+
+    @Value("${cdek.cache.base-url}")
+    private String baseUrl;
+    @Value("${cdek.tariff.ttl-seconds:3600}")
+    private long ttlSeconds;
+    @Value("${cdek.tariff.max-entries:10000}")
+    private int maxEntries;
+    @Value("${cdek.tariff.weight-step-grams:100}")
+    private int weightStepGrams;
+    @Value("${cdek.tariff.dimension-step-cm:5}")
+    private int dimensionStepCm;
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper keyMapper;
+    private final Map<String, CachedQuote> quotes = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Timer upstreamLatency;
+
+    public CdekTariffService(RestTemplate restTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.keyMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.hits = Counter.builder("cdek.tariff.requests")
+                .description("CDEK tariff calculations by cache outcome")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cdek.tariff.requests")
+                .description("CDEK tariff calculations by cache outcome")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("cdek.tariff.requests")
+                .description("CDEK tariff calculations by cache outcome")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.upstreamLatency = Timer.builder("cdek.tariff.upstream.latency")
+                .description("Time spent waiting for CDEK to calculate a tariff")
+                .register(meterRegistry);
+        Gauge.builder("cdek.tariff.entries", this, CdekTariffService::size)
+                .description("Tariff quotes held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the bucketed form of a widget {@code calculate} request, or {@code null} when the body is
+     * anything else and has to be proxied unchanged.
+     */
+    public ObjectNode toTariffRequest(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!(request instanceof ObjectNode object)
+                || !"calculate".equals(object.path("action").asText())
+                || !object.path("packages").isArray()) {
+            return null;
+        }
+        List<ObjectNode> packages = new ArrayList<>();
+        for (JsonNode item : object.path("packages")) {
+            if (!(item instanceof ObjectNode cargo) || !isPositiveNumber(cargo.path("weight"))) {
+                return null;
+            }
+            packages.add(bucket(cargo));
+        }
+        packages.sort(Comparator.comparing(JsonNode::toString));
+
+        ObjectNode tariffRequest = objectMapper.createObjectNode();
+        for (String field : REQUEST_FIELDS) {
+            if (object.hasNonNull(field)) {
+                tariffRequest.set(field, object.get(field));
+            }
+        }
+        for (String field : LOCATIONS) {
+            if (object.has(field)) {
+                tariffRequest.set(field, reduceLocation(object.get(field)));
+            }
+        }
+        ArrayNode bucketed = tariffRequest.putArray("packages");
+        packages.forEach(bucketed::add);
+        return tariffRequest;
+    }
+
+    public byte[] calculate(ObjectNode tariffRequest) {
+        String cacheKey = cacheKey(tariffRequest);
+        byte[] cached = lookup(cacheKey);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        return loadCoalesced(tariffRequest, cacheKey);
+    }
+
+    synchronized int size() {
+        return quotes.size();
+    }
+
+    private byte[] loadCoalesced(ObjectNode tariffRequest, String cacheKey) {
+        CompletableFuture<byte[]> load = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(cacheKey, load);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        misses.increment();
+        try {
+            byte[] body = fetch(tariffRequest, cacheKey);
+            load.complete(body);
+            return body;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, load);
+        }
+    }
+
+    private byte[] fetch(ObjectNode tariffRequest, String cacheKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<byte[]> response = upstreamLatency.record(() -> restTemplate.exchange(
+                baseUrl, HttpMethod.POST, new HttpEntity<>(tariffRequest.toString(), headers), byte[].class));
+        byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+        if (isCacheable(body)) {
+            store(cacheKey, body);
+        } else {
+            log.warn("CDEK tariff response for {} is not cached: {}", cacheKey, new String(body, StandardCharsets.UTF_8));
+        }
+        return body;
+    }
+
+    private synchronized byte[] lookup(String cacheKey) {
+        CachedQuote quote = quotes.get(cacheKey);
+        if (quote == null) {
+            return null;
+        }
+        if (System.nanoTime() - quote.expiresAtNanos() >= 0) {
+            quotes.remove(cacheKey);
+            return null;
+        }
+        return quote.body();
+    }
+
+    private synchronized void store(String cacheKey, byte[] body) {
+        quotes.put(cacheKey, new CachedQuote(body, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        while (quotes.size() > maxEntries) {
+            quotes.remove(quotes.keySet().iterator().next());
+        }
+    }
+
+    private String cacheKey(ObjectNode tariffRequest) {
+        try {
+            return keyMapper.writeValueAsString(keyMapper.treeToValue(tariffRequest, Object.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to build CDEK tariff cache key", e);
+        }
+    }
+
+    private boolean isCacheable(byte[] body) {
+        try {
+            JsonNode response = objectMapper.readTree(body);
+            return response != null && response.isContainerNode() && response.path("errors").isEmpty();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private ObjectNode bucket(ObjectNode cargo) {
+        ObjectNode bucketed = objectMapper.createObjectNode();
+        bucketed.put("weight", roundUp(cargo.path("weight").asDouble(), weightStepGrams));
+        for (String dimension : PACKAGE_DIMENSIONS) {
+            if (isPositiveNumber(cargo.path(dimension))) {
+                bucketed.put(dimension, roundUp(cargo.path(dimension).asDouble(), dimensionStepCm));
+            }
+        }
+        return bucketed;
+    }
+
+    private JsonNode reduceLocation(JsonNode location) {
+        if (!location.path("code").canConvertToInt()) {
+            return location;
+        }
+        ObjectNode reduced = objectMapper.createObjectNode();
+        reduced.put("code", location.path("code").asInt());
+        if (location.hasNonNull("country_code")) {
+            reduced.set("country_code", location.get("country_code"));
+        }
+        return reduced;
+    }
+
+    private static boolean isPositiveNumber(JsonNode value) {
+        return value.isNumber() && value.asDouble() > 0;
+    }
+
+    static long roundUp(double value, int step) {
+        return Math.max(step, (long) Math.ceil(value / step) * step);
+    }
+}
@@ -0,0 +1,77 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+@Service
+@Getter
+@Setter
+@Slf4j
+public class ExpiredOrderSweeper {
+
+    @Value("${order.sweeper.chunk-size:500}")
+    private int chunkSize;
+    @Value("${order.sweeper.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+    @Value("${order.sweeper.expiration-minutes:10}")
+    private long expirationMinutes;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter cancelledOrders;
+    private final DistributionSummary sweptPerRun;
+    private final Timer sweepDuration;
+
+    public ExpiredOrderSweeper(OrderRepository orderRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cancelledOrders = Counter.builder("orders.sweeper.cancelled")
+                .description("Expired pending orders cancelled by the sweeper")
+                .register(meterRegistry);
+        this.sweptPerRun = DistributionSummary.builder("orders.sweeper.swept.per.run")
+                .description("Orders cancelled in a single sweeper run")
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("orders.sweeper.duration")
+                .description("Duration of a sweeper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedRate = 5 * 60 * 1000)
+    public int cancelExpiredOrders() {
+        return sweepDuration.record(this::sweep);
+    }
+
+    private int sweep() {
+        LocalDateTime expirationThreshold = LocalDateTime.now().minusMinutes(expirationMinutes);
+        int total = 0;
+        int chunks = 0;
+        int swept;
+        do {
+            Integer result = transactionTemplate.execute(status ->
+                    orderRepository.cancelExpiredOrders(expirationThreshold, chunkSize));
+            swept = result == null ? 0 : result;
+            total += swept;
+            cancelledOrders.increment(swept);
+        } while (swept == chunkSize && ++chunks < maxChunksPerRun);
+
+        sweptPerRun.record(total);
+        if (total > 0) {
+            log.info("Cancelled {} expired orders created before {}", total, expirationThreshold);
+        }
+        return total;
+    }
+}
@@ -1,34 +1,133 @@
 package org.site.honey_shop.service;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.dto.ShowcaseSnapshot;
 import org.site.honey_shop.entity.Category;
 import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.repository.CategoryRepository;
 import org.site.honey_shop.repository.ProductRepository;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Serves the home page from an in-memory snapshot of the showcase. A catalog edit rebuilds the snapshot on
+ * the instance that made it and announces the rebuild on {@link #SNAPSHOT_CHANNEL}, so every other instance
+ * reloads its own snapshot from the database.
+ */
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
-public class MainPageService {
+public class MainPageService implements MessageListener {
+
+    public static final String SNAPSHOT_CHANNEL = "showcase::snapshot::events";
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicReference<ShowcaseSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
 
     public Map<String, List<Product>> getCategorizedProductsSorted() {
-        List<Category> categories = categoryRepository.findAllByOrderByShowcaseOrderAsc();
-        Map<String, List<Product>> map = new LinkedHashMap<>();
-        for (Category cat : categories) {
-            if (cat.getVisible() == true) {
-                List<Product> products = productRepository.findByCategory_CategoryIdAndShowInShowcaseTrueOrderByShowcaseOrderAsc(cat.getCategoryId());
-                map.put(cat.getName(), products);
-            }
+        return getShowcaseSnapshot().categorizedProducts();
+    }
+
+    public List<Category> getVisibleCategories() {
+        return getShowcaseSnapshot().categories();
+    }
+
+    public ShowcaseSnapshot getShowcaseSnapshot() {
+        ShowcaseSnapshot current = snapshot.get();
+        return current != null ? current : loadShowcaseSnapshot();
+    }
+
+    public ShowcaseSnapshot refreshShowcaseSnapshot() {
+        ShowcaseSnapshot fresh = rebuildShowcaseSnapshot();
+        try {
+            redisTemplate.convertAndSend(SNAPSHOT_CHANNEL, instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to announce showcase snapshot v{} to other instances: {}", fresh.version(), e.getMessage());
+        }
+        return fresh;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (instanceId.equals(new String(message.getBody(), StandardCharsets.UTF_8)) || snapshot.get() == null) {
+            return;
+        }
+        log.info("Showcase changed on another instance, rebuilding the snapshot.");
+        rebuildShowcaseSnapshot();
+    }
+
+    private synchronized ShowcaseSnapshot rebuildShowcaseSnapshot() {
+        List<Category> categories = categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc();
+        List<Product> products = productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc();
+
+        Map<UUID, List<Product>> productsByCategory = new HashMap<>();
+        for (Product product : products) {
+            productsByCategory.computeIfAbsent(product.getCategory().getCategoryId(), id -> new ArrayList<>())
+                    .add(copyOf(product));
         }
-        return map;
+
+        List<Category> categoryCopies = new ArrayList<>(categories.size());
+        Map<String, List<Product>> categorizedProducts = new LinkedHashMap<>();
+        for (Category category : categories) {
+            categoryCopies.add(copyOf(category));
+            categorizedProducts.put(category.getName(),
+                    List.copyOf(productsByCategory.getOrDefault(category.getCategoryId(), List.of())));
+        }
+
+        ShowcaseSnapshot fresh = new ShowcaseSnapshot(
+                version.incrementAndGet(),
+                List.copyOf(categoryCopies),
+                Collections.unmodifiableMap(categorizedProducts),
+                LocalDateTime.now());
+        snapshot.set(fresh);
+        log.info("Showcase snapshot v{} built: {} categories, {} products.", fresh.version(), categories.size(), products.size());
+        return fresh;
+    }
+
+    private synchronized ShowcaseSnapshot loadShowcaseSnapshot() {
+        ShowcaseSnapshot current = snapshot.get();
+        return current != null ? current : rebuildShowcaseSnapshot();
+    }
+
+    private static Category copyOf(Category category) {
+        return Category.builder()
+                .categoryId(category.getCategoryId())
+                .name(category.getName())
+                .imageUrl(category.getImageUrl())
+                .visible(category.getVisible())
+                .showcaseOrder(category.getShowcaseOrder())
+                .build();
+    }
+
+    private static Product copyOf(Product product) {
+        return Product.builder()
+                .productId(product.getProductId())
+                .name(product.getName())
+                .shortDescription(product.getShortDescription())
+                .description(product.getDescription())
+                .images(List.copyOf(product.getImages()))
+                .price(product.getPrice())
+                .length(product.getLength())
+                .width(product.getWidth())
+                .height(product.getHeight())
+                .weight(product.getWeight())
+                .stockQuantity(product.getStockQuantity())
+                .showInShowcase(product.isShowInShowcase())
+                .showcaseOrder(product.getShowcaseOrder())
+                .build();
     }
 }
@@ -0,0 +1,124 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.dto.OutboxEvent;
+import org.site.honey_shop.kafka.OrderEventPublisher;
+import org.site.honey_shop.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Getter
+@Setter
+@Slf4j
+public class OrderOutboxRelay {
+
+    @Value("${order.outbox.batch-size:200}")
+    private int batchSize;
+    @Value("${order.outbox.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+    @Value("${order.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final OrderRepository orderRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedEvents;
+    private final Counter failedBatches;
+    private final Timer deliveryLag;
+    private final Timer relayDuration;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    public OrderOutboxRelay(OrderRepository orderRepository,
+                            OrderEventPublisher orderEventPublisher,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderEventPublisher = orderEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedEvents = Counter.builder("orders.outbox.published")
+                .description("Order events delivered to Kafka from the outbox")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("orders.outbox.failed")
+                .description("Outbox batches left for retry after a failed delivery")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("orders.outbox.delivery.lag")
+                .description("Time from writing an order event to its delivery to Kafka")
+                .register(meterRegistry);
+        this.relayDuration = Timer.builder("orders.outbox.relay.duration")
+                .description("Duration of an outbox relay run")
+                .register(meterRegistry);
+        Gauge.builder("orders.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Order events waiting in the outbox after the last relay run")
+                .register(meterRegistry);
+        Gauge.builder("orders.outbox.lag", oldestPendingAgeMs, AtomicLong::get)
+                .description("Age of the oldest undelivered order event after the last relay run")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval-ms:1000}")
+    public int relayOrderEvents() {
+        return relayDuration.record(this::relay);
+    }
+
+    private int relay() {
+        int total = 0;
+        int batches = 0;
+        int relayed;
+        try {
+            do {
+                Integer result = transactionTemplate.execute(status -> relayBatch());
+                relayed = result == null ? 0 : result;
+                total += relayed;
+            } while (relayed == batchSize && ++batches < maxBatchesPerRun);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            log.warn("Order outbox relay stopped, batch will be retried: {}", e.getMessage());
+        }
+
+        pendingEvents.set(orderRepository.countOutboxEvents());
+        oldestPendingAgeMs.set(orderRepository.oldestOutboxEventDate()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis())
+                .orElse(0L));
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = orderRepository.lockNextOutboxBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        CompletableFuture<?>[] sends = batch.stream()
+                .map(event -> orderEventPublisher.publishOrderEvent(event.orderId().toString(), event.payload()))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to deliver order events", e);
+        }
+
+        orderRepository.deleteOutboxEvents(batch.stream().map(OutboxEvent::id).toList());
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(event -> deliveryLag.record(Duration.between(event.createDate(), now)));
+        publishedEvents.increment(batch.size());
+        return batch.size();
+    }
+}
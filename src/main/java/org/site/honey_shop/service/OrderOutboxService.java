@@ -0,0 +1,28 @@
+package org.site.honey_shop.service;
+
+import lombok.AllArgsConstructor;
+import org.site.honey_shop.dto.OrderEventDto;
+import org.site.honey_shop.entity.Order;
+import org.site.honey_shop.entity.OrderEventType;
+import org.site.honey_shop.kafka.KafkaEventSerializer;
+import org.site.honey_shop.repository.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@AllArgsConstructor
+public class OrderOutboxService {
+
+    private final OrderRepository orderRepository;
+    private final KafkaEventSerializer kafkaEventSerializer;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Order order, OrderEventType eventType, String message) {
+        OrderEventDto event = new OrderEventDto(order.getOrderId(), eventType, order.getTotalOrderAmount(),
+                message, LocalDateTime.now());
+        orderRepository.appendOutboxEvent(order.getOrderId(), eventType.name(), kafkaEventSerializer.toJson(event));
+    }
+}
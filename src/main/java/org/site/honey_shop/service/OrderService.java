@@ -1,27 +1,21 @@
 package org.site.honey_shop.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.dto.CartLine;
 import org.site.honey_shop.dto.OrderDTO;
 import org.site.honey_shop.entity.*;
 import org.site.honey_shop.exception.OrderCreateException;
-import org.site.honey_shop.kafka.OrderEventPublisher;
 import org.site.honey_shop.mapper.ShopMapper;
 import org.site.honey_shop.repository.OrderRepository;
 import org.site.honey_shop.repository.ProductRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 @Slf4j
 @Service
@@ -30,10 +24,10 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ShopMapper shopMapper;
-    private final OrderEventPublisher orderEventPublisher;
+    private final OrderOutboxService orderOutboxService;
     private final ProductRepository productRepository;
     private final ProductService productService;
-    private final PaymentService paymentService;
+    private final CartParser cartParser;
 
     public OrderDTO findOrderDTOById(UUID orderId) {
         log.info("Find orderDTO: {}", orderId);
@@ -77,63 +71,42 @@ public class OrderService {
                 .build();
         order.setPayment(payment);
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<OrderItem> orderItems;
+        log.info("Attempt to parse order items json: {}", orderItemsJson);
+        List<CartLine> cartLines = cartParser.parse(orderItemsJson);
 
-        try {
-            log.info("Attempt to parse order items json: {}", orderItemsJson);
-            orderItems = objectMapper.readValue(orderItemsJson, new TypeReference<>() {
-            });
-        } catch (JsonProcessingException e) {
-            log.error("Error while parsing JSON: {}", e.getMessage());
-            throw new OrderCreateException("Ошибка при разборе JSON с товарами");
+        Set<UUID> productIds = new LinkedHashSet<>();
+        for (CartLine cartLine : cartLines) {
+            productIds.add(cartLine.productId());
         }
 
-        for (OrderItem orderItem : orderItems) {
-            UUID productId = orderItem.getProduct().getProductId();
-
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new OrderCreateException("Товар с id " + productId + " не найден"));
-
-            productService.updateStockForReduction(product, orderItem.getQuantity());
-            productRepository.save(product);
+        Map<UUID, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            products.put(product.getProductId(), product);
+        }
 
-            orderItem.setProduct(product);
-            orderItem.setOrder(order);
+        List<OrderItem> orderItems = new ArrayList<>(cartLines.size());
+        for (CartLine cartLine : cartLines) {
+            Product product = products.get(cartLine.productId());
+            if (product == null) {
+                throw new OrderCreateException("Товар с id " + cartLine.productId() + " не найден");
+            }
+            orderItems.add(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(cartLine.quantity())
+                    .pricePerUnit(product.getPrice())
+                    .build());
         }
 
+        productService.reserveStock(orderItems);
+
         order.setOrderItems(orderItems);
         order = orderRepository.save(order);
-        orderEventPublisher.publishOrderCreatedEvent(" на сумму " + order.getTotalOrderAmount() + " руб.");
+        orderOutboxService.append(order, OrderEventType.CREATED, " на сумму " + order.getTotalOrderAmount() + " руб.");
         log.info("Order saved: {}", order.getOrderId());
         return order;
     }
 
-    @Scheduled(fixedRate = 5 * 60 * 1000)
-    @Transactional
-    public void cancelExpiredOrders() {
-        LocalDateTime expirationThreshold = LocalDateTime.now().minusMinutes(10);
-        List<Order> expiredOrders = orderRepository.findByOrderStatusAndCreateDateBefore(OrderStatus.PENDING, expirationThreshold);
-
-        for (Order order : expiredOrders) {
-            order.setOrderStatus(OrderStatus.CANCELLED);
-            Payment payment = paymentService.findById(order.getPayment().getPaymentId());
-            payment.setPaymentStatus(PaymentStatus.FAILED);
-
-            for (OrderItem item : order.getOrderItems()) {
-                Product product = productRepository.findById(item.getProduct().getProductId())
-                        .orElseThrow(() -> new IllegalStateException("Product not found"));
-
-                productService.updateStockForAddition(product, item.getQuantity());
-            }
-
-            paymentService.update(payment);
-            log.info("Order cancelled: {}", order.getOrderId());
-            update(order);
-        }
-    }
-
-
     @Transactional
     public Order update(Order order) {
         Order existingOrder = orderRepository.findById(order.getOrderId())
@@ -3,7 +3,6 @@ package org.site.honey_shop.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.site.honey_shop.entity.*;
-import org.site.honey_shop.kafka.OrderEventPublisher;
 import org.site.honey_shop.kafka.OrderInfoEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,7 +19,7 @@ public class PaymentEventHandlerService {
     private final OrderService orderService;
     private final ProductService productService;
     private final PaymentService paymentService;
-    private final OrderEventPublisher orderEventPublisher;
+    private final OrderOutboxService orderOutboxService;
     private final OrderInfoEventPublisher orderInfoEventPublisher;
 
     @Transactional
@@ -52,7 +51,7 @@ public class PaymentEventHandlerService {
         orderService.update(order);
 
         orderInfoEventPublisher.publishOrderInfoEvent(order);
-        orderEventPublisher.publishOrderCreatedEvent(" на сумму " + order.getTotalOrderAmount() + " руб. был успешно оплачен!");
+        orderOutboxService.append(order, OrderEventType.PAID, " на сумму " + order.getTotalOrderAmount() + " руб. был успешно оплачен!");
 
         log.info("Order and payment status(Success) updated successfully for order {}", orderUuid);
     }
@@ -73,7 +72,7 @@ public class PaymentEventHandlerService {
         paymentService.update(payment);
         orderService.update(order);
 
-        orderEventPublisher.publishOrderCreatedEvent(" на сумму " + order.getTotalOrderAmount() + " руб. был отменен!");
+        orderOutboxService.append(order, OrderEventType.CANCELLED, " на сумму " + order.getTotalOrderAmount() + " руб. был отменен!");
 
         log.info("Order and payment status(Cancelled) updated successfully for order {}", orderUuid);
     }
@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 
 import lombok.extern.slf4j.Slf4j;
 import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.OrderItem;
 import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.exception.DeleteProductException;
 import org.site.honey_shop.exception.OrderCreateException;
@@ -13,6 +14,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -30,6 +32,7 @@ public class ProductService {
     private String UPLOAD_DIRECTORY;
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
+    private final MainPageService mainPageService;
 
     public Product getProductById(UUID productId) {
         log.info("Get product by id: {}", productId);
@@ -37,10 +40,18 @@ public class ProductService {
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
     }
 
-public Page<Product> getAllProducts(Pageable pageable) {
-    log.info("Get all products grouped by category and sorted by price.");
-    return productRepository.findAll(pageable);
-}
+    public Page<Product> getAllProducts(Pageable pageable) {
+        log.info("Get all products grouped by category and sorted by price.");
+        Page<UUID> productIds = productRepository.findProductIds(pageable);
+        if (productIds.isEmpty()) {
+            return productIds.map(id -> null);
+        }
+        Map<UUID, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllByProductIdIn(productIds.getContent())) {
+            productsById.put(product.getProductId(), product);
+        }
+        return productIds.map(productsById::get);
+    }
 
 
     public void createProduct(Product product, List<MultipartFile> pictures, String imageOrder) {
@@ -63,6 +74,7 @@ public Page<Product> getAllProducts(Pageable pageable) {
                 .build();
         log.info("Create product: {}", product.getName());
         productRepository.save(product);
+        mainPageService.refreshShowcaseSnapshot();
 
     }
 
@@ -88,6 +100,7 @@ public Page<Product> getAllProducts(Pageable pageable) {
 
         log.info("Update product: {}", product.getProductId());
         productRepository.save(exisitingProduct);
+        mainPageService.refreshShowcaseSnapshot();
         return exisitingProduct;
     }
 
@@ -155,6 +168,7 @@ public Page<Product> getAllProducts(Pageable pageable) {
             log.error("Delete product with productId={} failed", productId, e);
             throw new DeleteProductException("Ошибка при удалении продукта, возможно он используется в других таблицах.");
         }
+        mainPageService.refreshShowcaseSnapshot();
     }
 
     public void removeImageFromProduct(UUID productId, String imageFilename) {
@@ -163,16 +177,26 @@ public Page<Product> getAllProducts(Pageable pageable) {
         product.getImages().remove(imageFilename);
         log.info("Remove image from product: {}", product.getProductId());
         productRepository.save(product);
+        mainPageService.refreshShowcaseSnapshot();
     }
 
-    public void updateStockForReduction(Product product, int quantity) {
-        if (product.getStockQuantity() < quantity) {
+    @Transactional
+    public void reserveStock(List<OrderItem> orderItems) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        Map<UUID, Product> products = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            Product product = orderItem.getProduct();
+            quantities.merge(product.getProductId(), orderItem.getQuantity(), Integer::sum);
+            products.putIfAbsent(product.getProductId(), product);
+        }
+
+        List<UUID> rejected = productRepository.reserveStock(quantities);
+        if (!rejected.isEmpty()) {
+            Product product = products.get(rejected.getFirst());
+            log.warn("Stock reservation rejected for products: {}", rejected);
             throw new OrderCreateException("Недостаточно остатков товара: " + product.getName() + " для создания заказа.");
-        } else {
-            product.setStockQuantity(product.getStockQuantity() - quantity);
         }
-        log.info("Update stock for reduction: {}", product.getName());
-        productRepository.save(product);
+        log.info("Stock reserved for {} products", quantities.size());
     }
 
     public void updateStockForAddition(Product product, int quantity) {
@@ -19,6 +19,7 @@ public class ShowcaseService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final MainPageService mainPageService;
 
 
     public List<Category> getShowcase() {
@@ -49,5 +50,6 @@ public class ShowcaseService {
                 }
             }
         }
+        mainPageService.refreshShowcaseSnapshot();
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.site.honey_shop.constants.TokenLifeTime;
+import org.site.honey_shop.repository.TokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Getter
+@Setter
+@Slf4j
+public class TokenRetentionService {
+
+    @Value("${token.retention.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${token.retention.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    private final TokenRepository tokenRepository;
+    private final Counter purgedTokens;
+    private final Timer purgeDuration;
+    private final AtomicLong tableRows = new AtomicLong();
+    private final AtomicLong tableBytes = new AtomicLong();
+
+    public TokenRetentionService(TokenRepository tokenRepository, MeterRegistry meterRegistry) {
+        this.tokenRepository = tokenRepository;
+        this.purgedTokens = Counter.builder("tokens.purged")
+                .description("Expired or invalidated token rows deleted")
+                .register(meterRegistry);
+        this.purgeDuration = Timer.builder("tokens.purge.duration")
+                .description("Duration of a token purge run")
+                .register(meterRegistry);
+        Gauge.builder("tokens.table.rows", tableRows, AtomicLong::get)
+                .description("Rows in the tokens table after the last purge")
+                .register(meterRegistry);
+        Gauge.builder("tokens.table.bytes", tableBytes, AtomicLong::get)
+                .description("Size of the tokens table after the last purge")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${token.retention.cron:0 15 * * * *}")
+    public int purgeTokens() {
+        return purgeDuration.record(this::purge);
+    }
+
+    private int purge() {
+        LocalDateTime createdBefore = LocalDateTime.now().minus(TokenLifeTime.REFRESH_TOKEN.getDuration());
+        int total = 0;
+        int chunks = 0;
+        int purged;
+        do {
+            purged = tokenRepository.purgeTokens(createdBefore, chunkSize);
+            total += purged;
+            purgedTokens.increment(purged);
+        } while (purged == chunkSize && ++chunks < maxChunksPerRun);
+
+        tableRows.set(tokenRepository.countTokens());
+        tableBytes.set(tokenRepository.tokensTableSizeBytes());
+        log.info("Purged {} tokens created before {} or invalidated, {} rows left", total, createdBefore, tableRows.get());
+        return total;
+    }
+}
@@ -0,0 +1,84 @@
+package org.site.honey_shop.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.site.honey_shop.dto.OrderInfoDto;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.site.honey_shop.kafka.BinaryEventCodec;
+import org.site.honey_shop.kafka.KafkaEventSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryEventCodecBenchmark {
+
+    private KafkaEventSerializer jsonSerializer;
+    private BinaryEventCodec binaryEventCodec;
+    private PageViewEvent pageViewEvent;
+    private OrderInfoDto orderInfoDto;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new KafkaEventSerializer();
+        binaryEventCodec = new BinaryEventCodec();
+        pageViewEvent = samplePageView();
+        orderInfoDto = sampleOrderInfo();
+    }
+
+    @Benchmark
+    public byte[] pageViewJson() {
+        return jsonSerializer.toJson(pageViewEvent).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] pageViewBinary() {
+        return binaryEventCodec.encode(pageViewEvent);
+    }
+
+    @Benchmark
+    public byte[] orderInfoJson() {
+        return jsonSerializer.toJson(orderInfoDto).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] orderInfoBinary() {
+        return binaryEventCodec.encode(orderInfoDto);
+    }
+
+    private static PageViewEvent samplePageView() {
+        return new PageViewEvent("/showcase", "192.168.1.10",
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36",
+                "5F1C2B7E9A0D4E3F8B6A1C2D3E4F5A6B", LocalDateTime.now());
+    }
+
+    private static OrderInfoDto sampleOrderInfo() {
+        return new OrderInfoDto(UUID.randomUUID(), LocalDateTime.now(), 4, 2350.0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        KafkaEventSerializer json = new KafkaEventSerializer();
+        BinaryEventCodec binary = new BinaryEventCodec();
+        PageViewEvent pageView = samplePageView();
+        OrderInfoDto orderInfo = sampleOrderInfo();
+        System.out.printf("page-view-info payload: json=%d bytes, binary=%d bytes%n",
+                json.toJson(pageView).getBytes(StandardCharsets.UTF_8).length, binary.encode(pageView).length);
+        System.out.printf("order.info payload: json=%d bytes, binary=%d bytes%n",
+                json.toJson(orderInfo).getBytes(StandardCharsets.UTF_8).length, binary.encode(orderInfo).length);
+
+        Options options = new OptionsBuilder()
+                .include(BinaryEventCodecBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,60 @@
+package org.site.honey_shop.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.site.honey_shop.dto.CartLine;
+import org.site.honey_shop.entity.OrderItem;
+import org.site.honey_shop.service.CartParser;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartParserBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int cartSize;
+
+    private String json;
+    private CartParser cartParser;
+
+    @Setup
+    public void setUp() {
+        StringJoiner joiner = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < cartSize; i++) {
+            joiner.add("{\"order\":null,\"product\":{\"productId\":\"" + UUID.randomUUID() + "\"},\"quantity\":1,\"pricePerUnit\":3000}");
+        }
+        json = joiner.toString();
+        cartParser = new CartParser(new ObjectMapper());
+    }
+
+    @Benchmark
+    public List<OrderItem> legacyEntityBinding() throws Exception {
+        return new ObjectMapper().readValue(json, new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public List<CartLine> streamingCartParser() {
+        return cartParser.parse(json);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CartParserBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
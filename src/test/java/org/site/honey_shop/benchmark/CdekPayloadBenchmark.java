@@ -0,0 +1,91 @@
+package org.site.honey_shop.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.site.honey_shop.service.GzipCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares serving the CDEK office list the old way (UTF-8 string read from Redis and re-encoded into the
+ * response) with the stored gzip bytes, either passed through as-is or inflated for clients without gzip.
+ * SampleTime mode reports p99 alongside the mean; {@link #main} also prints the stored and transferred sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CdekPayloadBenchmark {
+
+    private static final String[] CITIES = {"Москва", "Санкт-Петербург", "Казань", "Новосибирск", "Екатеринбург", "Краснодар"};
+
+    @Param({"1000", "5000"})
+    private int offices;
+
+    private byte[] plainRedisValue;
+    private byte[] gzipRedisValue;
+
+    @Setup
+    public void setUp() {
+        plainRedisValue = officeList(offices).getBytes(StandardCharsets.UTF_8);
+        gzipRedisValue = GzipCodec.compress(plainRedisValue);
+    }
+
+    @Benchmark
+    public byte[] plainStringResponse() {
+        String json = new String(plainRedisValue, StandardCharsets.UTF_8);
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] gzipPassThrough() {
+        return gzipRedisValue.clone();
+    }
+
+    @Benchmark
+    public byte[] gzipInflatedForPlainClient() {
+        return GzipCodec.decompress(gzipRedisValue);
+    }
+
+    @Benchmark
+    public byte[] gzipOnRefresh() {
+        return GzipCodec.compress(plainRedisValue);
+    }
+
+    static String officeList(int count) {
+        Random random = new Random(42);
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < count; i++) {
+            String city = CITIES[random.nextInt(CITIES.length)];
+            json.add("{\"code\":\"MSK" + i + "\",\"name\":\"Пункт выдачи заказов " + i + "\","
+                    + "\"type\":\"PVZ\",\"work_time\":\"Пн-Пт 10:00-20:00, Сб-Вс 10:00-18:00\","
+                    + "\"phones\":[{\"number\":\"+7495" + (1000000 + random.nextInt(8999999)) + "\"}],"
+                    + "\"location\":{\"city\":\"" + city + "\",\"address\":\"ул. Ленина, д. " + random.nextInt(200) + "\","
+                    + "\"latitude\":" + (43 + random.nextDouble() * 13) + ",\"longitude\":" + (30 + random.nextDouble() * 53) + "},"
+                    + "\"is_handout\":true,\"is_dressing_room\":" + random.nextBoolean() + "}");
+        }
+        return json.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int count : new int[]{1000, 5000}) {
+            byte[] plain = officeList(count).getBytes(StandardCharsets.UTF_8);
+            byte[] gzip = GzipCodec.compress(plain);
+            System.out.printf("%d offices: redis value plain=%d bytes, gzip=%d bytes; response body plain=%d bytes, gzip=%d bytes%n",
+                    count, plain.length, gzip.length, plain.length, gzip.length);
+        }
+
+        Options options = new OptionsBuilder()
+                .include(CdekPayloadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
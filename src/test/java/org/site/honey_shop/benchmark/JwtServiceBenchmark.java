@@ -0,0 +1,90 @@
+package org.site.honey_shop.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.site.honey_shop.entity.Authority;
+import org.site.honey_shop.entity.Role;
+import org.site.honey_shop.entity.User;
+import org.site.honey_shop.repository.TokenRepository;
+import org.site.honey_shop.repository.UserRepository;
+import org.site.honey_shop.security.JwtService;
+import org.site.honey_shop.security.TokenDenyList;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String USERNAME = "benchmark";
+
+    private String secretKey;
+    private JwtService jwtService;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        secretKey = Base64.getEncoder().encodeToString("benchmark-secret-key-benchmark-secret-key".getBytes());
+
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .username(USERNAME)
+                .role(Role.ROLE_ADMIN)
+                .build();
+        user.setAuthorities(new HashSet<>(List.of(Authority.builder().username(USERNAME).authority("ROLE_ADMIN").build())));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
+        TokenDenyList tokenDenyList = mock(TokenDenyList.class);
+        when(tokenDenyList.isDenied(anyString())).thenReturn(false);
+
+        jwtService = new JwtService(secretKey, userRepository, mock(TokenRepository.class), tokenDenyList);
+        accessToken = jwtService.generateAccessToken(USERNAME);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(USERNAME);
+    }
+
+    @Benchmark
+    public Optional<Claims> validateAccessToken() {
+        return jwtService.validateAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public Claims legacyParsePerCall() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
+                .build()
+                .parseSignedClaims(accessToken)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
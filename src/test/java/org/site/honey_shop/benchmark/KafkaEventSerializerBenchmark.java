@@ -0,0 +1,69 @@
+package org.site.honey_shop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.site.honey_shop.dto.OrderInfoDto;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.site.honey_shop.kafka.KafkaEventSerializer;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaEventSerializerBenchmark {
+
+    private KafkaEventSerializer serializer;
+    private PageViewEvent pageViewEvent;
+    private OrderInfoDto orderInfoDto;
+
+    @Setup
+    public void setUp() {
+        serializer = new KafkaEventSerializer();
+        pageViewEvent = new PageViewEvent("/catalog/honey", "192.168.1.10",
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36",
+                "5F1C2B7E9A0D4E3F8B6A1C2D3E4F5A6B", LocalDateTime.now());
+        orderInfoDto = new OrderInfoDto(UUID.randomUUID(), LocalDateTime.now(), 4, 2350.0);
+    }
+
+    @Benchmark
+    public String pageViewLegacyMapperPerCall() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper.writeValueAsString(pageViewEvent);
+    }
+
+    @Benchmark
+    public String pageViewSharedWriter() {
+        return serializer.toJson(pageViewEvent);
+    }
+
+    @Benchmark
+    public String orderInfoLegacyMapperPerCall() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper.writeValueAsString(orderInfoDto);
+    }
+
+    @Benchmark
+    public String orderInfoSharedWriter() {
+        return serializer.toJson(orderInfoDto);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(KafkaEventSerializerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
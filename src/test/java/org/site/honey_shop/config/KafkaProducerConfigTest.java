@@ -0,0 +1,58 @@
+package org.site.honey_shop.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.KafkaMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaProducerConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(KafkaAutoConfiguration.class, KafkaMetricsAutoConfiguration.class))
+            .withUserConfiguration(KafkaProducerConfig.class)
+            .withBean(SimpleMeterRegistry.class)
+            .withPropertyValues("spring.kafka.bootstrap-servers=localhost:9092",
+                    "spring.kafka.producer.acks=all",
+                    "spring.kafka.producer.batch-size=16384",
+                    "kafka.producer.high-throughput.compression-type=zstd");
+
+    @Test
+    void testProducerProfiles_splitDurableAndHighThroughputSettings() {
+        contextRunner.run(context -> {
+            DefaultKafkaProducerFactory<?, ?> durable = context.getBean("durableProducerFactory", DefaultKafkaProducerFactory.class);
+            DefaultKafkaProducerFactory<?, ?> highThroughput = context.getBean("highThroughputProducerFactory", DefaultKafkaProducerFactory.class);
+
+            assertThat(durable.getConfigurationProperties())
+                    .containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+                    .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true)
+                    .containsEntry(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
+            assertThat(highThroughput.getConfigurationProperties())
+                    .containsEntry(ProducerConfig.ACKS_CONFIG, "1")
+                    .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false)
+                    .containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20)
+                    .containsEntry(ProducerConfig.BATCH_SIZE_CONFIG, 131072)
+                    .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd");
+            assertThat(durable.getListeners()).hasAtLeastOneElementOfType(MicrometerProducerListener.class);
+            assertThat(highThroughput.getListeners()).hasAtLeastOneElementOfType(MicrometerProducerListener.class);
+        });
+    }
+
+    @Test
+    void testProducerProfiles_durableTemplateIsPrimary() {
+        contextRunner.run(context -> {
+            assertThat(context).getBeans(KafkaTemplate.class).hasSize(2);
+            assertThat(context.getBean(KafkaTemplate.class))
+                    .isSameAs(context.getBean("durableKafkaTemplate"));
+            assertThat(context.getBean("highThroughputKafkaTemplate", KafkaTemplate.class).getProducerFactory())
+                    .isSameAs(context.getBean("highThroughputProducerFactory"));
+        });
+    }
+}
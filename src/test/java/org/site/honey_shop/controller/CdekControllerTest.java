@@ -1,5 +1,7 @@
 package org.site.honey_shop.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,40 +9,134 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.site.honey_shop.service.CdekCacheService;
+import org.site.honey_shop.service.CdekOfficeIndexService;
+import org.site.honey_shop.service.CdekTariffService;
+import org.site.honey_shop.service.GzipCodec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.anyMap;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class CdekControllerTest {
 
+    private static final String MOCK_RESPONSE = "{\"offices\": [{\"id\": 1, \"name\": \"Office 1\"}]}";
+
     @Mock
     private CdekCacheService cdekCacheService;
 
+    @Mock
+    private CdekOfficeIndexService cdekOfficeIndexService;
+
+    @Mock
+    private CdekTariffService cdekTariffService;
+
     @InjectMocks
     private CdekController cdekController;
 
     private MockMvc mockMvc;
+    private byte[] gzipped;
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(cdekController).build();
+        gzipped = GzipCodec.compress(MOCK_RESPONSE.getBytes(StandardCharsets.UTF_8));
     }
 
     @Test
     void testGetOffices() throws Exception {
-        String mockResponse = "{\"offices\": [{\"id\": 1, \"name\": \"Office 1\"}]}";
-
-        when(cdekCacheService.getOfficesWithCaching(anyMap())).thenReturn(mockResponse);
+        when(cdekCacheService.getCompressedOffices(anyMap())).thenReturn(gzipped);
 
         mockMvc.perform(get("/cdek/offices")
                         .param("city", "Moscow"))
                 .andExpect(status().isOk())
-                .andExpect(content().json(mockResponse));
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().json(MOCK_RESPONSE));
+    }
+
+    @Test
+    void testGetOffices_passesStoredGzipThrough() throws Exception {
+        when(cdekCacheService.getCompressedOffices(anyMap())).thenReturn(gzipped);
+
+        mockMvc.perform(get("/cdek/offices")
+                        .param("city", "Moscow")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().bytes(gzipped));
+    }
+
+    @Test
+    void testGetOffices_geoQueryServedFromIndex() throws Exception {
+        String nearest = "[{\"code\":\"MSK1\"}]";
+        when(cdekOfficeIndexService.findOffices(anyMap())).thenReturn(nearest.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(get("/cdek/offices")
+                        .param("action", "offices")
+                        .param("near", "55.75,37.61")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().json(nearest));
+        verifyNoInteractions(cdekCacheService);
+    }
+
+    @Test
+    void testGetOffices_malformedGeoQueryIsBadRequest() throws Exception {
+        when(cdekOfficeIndexService.findOffices(anyMap())).thenThrow(new IllegalArgumentException("Некорректный параметр bbox"));
+
+        mockMvc.perform(get("/cdek/offices").param("bbox", "1,2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetOffices_malformedAcceptEncodingIsNotAnError() throws Exception {
+        when(cdekCacheService.getCompressedOffices(anyMap())).thenReturn(gzipped);
+
+        mockMvc.perform(get("/cdek/offices")
+                        .param("city", "Moscow")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=x"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertThat(CdekController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(CdekController.acceptsGzip("*")).isTrue();
+        assertThat(CdekController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CdekController.acceptsGzip("identity")).isFalse();
+        assertThat(CdekController.acceptsGzip(null)).isFalse();
+        assertThat(CdekController.acceptsGzip("gzip;q=x")).isTrue();
+        assertThat(CdekController.acceptsGzip("*;q=1, gzip;q=0")).isFalse();
+        assertThat(CdekController.acceptsGzip("gzip;q=0.5, *;q=0")).isTrue();
+    }
+
+    @Test
+    void testCalculateServedByTariffCache() throws Exception {
+        String request = "{\"action\":\"calculate\",\"to_location\":{\"code\":44},\"packages\":[{\"weight\":500}]}";
+        String tariffs = "{\"tariff_codes\":[{\"tariff_code\":136,\"delivery_sum\":350.0}]}";
+        ObjectNode tariffRequest = (ObjectNode) new ObjectMapper().readTree(request);
+        when(cdekTariffService.toTariffRequest(request.getBytes(StandardCharsets.UTF_8))).thenReturn(tariffRequest);
+        when(cdekTariffService.calculate(tariffRequest)).thenReturn(tariffs.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(post("/cdek/offices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().json(tariffs));
     }
-}
\ No newline at end of file
+}
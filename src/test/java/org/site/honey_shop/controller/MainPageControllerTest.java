@@ -6,10 +6,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.dto.ShowcaseSnapshot;
 import org.site.honey_shop.entity.Category;
 import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.entity.Order;
-import org.site.honey_shop.service.CategoryService;
 import org.site.honey_shop.service.MainPageService;
 import org.site.honey_shop.service.PaymentCashService;
 import org.springframework.mock.web.MockHttpSession;
@@ -18,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -37,9 +38,6 @@ class MainPageControllerTest {
     @Mock
     private PaymentCashService paymentCashService;
 
-    @Mock
-    private CategoryService categoryService;
-
     @Mock
     private MockHttpSession session;
 
@@ -49,7 +47,7 @@ class MainPageControllerTest {
     void setUp() {
         when(session.getId()).thenReturn("mock-session-id");
 
-        mainPageController = new MainPageController(mainPageService, paymentCashService, categoryService, session);
+        mainPageController = new MainPageController(mainPageService, paymentCashService, session);
 
         var viewResolver = new InternalResourceViewResolver();
         viewResolver.setPrefix("/WEB-INF/views/");
@@ -73,9 +71,9 @@ class MainPageControllerTest {
 
         List<Category> visibleCategories = List.of(category);
 
-        when(mainPageService.getCategorizedProductsSorted()).thenReturn(categorizedProducts);
+        when(mainPageService.getShowcaseSnapshot())
+                .thenReturn(new ShowcaseSnapshot(1L, visibleCategories, categorizedProducts, LocalDateTime.now()));
         when(paymentCashService.getPaymentSuccess("mock-session-id")).thenReturn(true);
-        when(categoryService.findAllTrueVisibleCategories()).thenReturn(visibleCategories);
 
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
@@ -87,9 +85,8 @@ class MainPageControllerTest {
                 .andExpect(model().attributeExists("categories"))
                 .andExpect(model().attribute("categories", visibleCategories));
 
-        verify(mainPageService).getCategorizedProductsSorted();
+        verify(mainPageService).getShowcaseSnapshot();
         verify(paymentCashService).getPaymentSuccess("mock-session-id");
-        verify(categoryService).findAllTrueVisibleCategories();
     }
 
     @Test
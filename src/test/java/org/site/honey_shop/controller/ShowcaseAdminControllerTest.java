@@ -84,19 +84,24 @@ class ShowcaseAdminControllerTest {
         List<Category> categories = List.of(category1, category2);
         when(showcaseService.getShowcase()).thenReturn(categories);
 
-        List<Product> products1 = List.of(new Product());
-        List<Product> products2 = List.of(new Product(), new Product());
+        Product product1 = Product.builder().category(category1).build();
+        Product product2 = Product.builder().category(category2).build();
+        Product product3 = Product.builder().category(category2).build();
 
-        when(productRepository.findByCategory_CategoryIdOrderByShowcaseOrderAsc(category1.getCategoryId()))
-                .thenReturn(products1);
-        when(productRepository.findByCategory_CategoryIdOrderByShowcaseOrderAsc(category2.getCategoryId()))
-                .thenReturn(products2);
+        when(productRepository.findAllByCategoryIsNotNullOrderByShowcaseOrderAsc())
+                .thenReturn(List.of(product1, product2, product3));
+
+        Map<Category, List<Product>> expected = new LinkedHashMap<>();
+        expected.put(category1, List.of(product1));
+        expected.put(category2, List.of(product2, product3));
 
         mockMvc.perform(get("/showcase"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("showcase"))
                 .andExpect(model().attributeExists("authUserId"))
-                .andExpect(model().attributeExists("categoryProductsMap"));
+                .andExpect(model().attribute("categoryProductsMap", expected));
+
+        verify(productRepository, times(1)).findAllByCategoryIsNotNullOrderByShowcaseOrderAsc();
     }
 
     @Test
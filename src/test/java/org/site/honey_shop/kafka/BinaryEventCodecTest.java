@@ -0,0 +1,128 @@
+package org.site.honey_shop.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.dto.OrderInfoDto;
+import org.site.honey_shop.entity.PageViewEvent;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36";
+
+    private final BinaryEventCodec codec = new BinaryEventCodec();
+    private final KafkaEventSerializer jsonSerializer = new KafkaEventSerializer();
+
+    @Test
+    void testPageView_roundTripsAndIsSmallerThanJson() {
+        PageViewEvent event = new PageViewEvent("/catalog/honey", "10.0.0.1", USER_AGENT,
+                "5F1C2B7E9A0D4E3F8B6A1C2D3E4F5A6B", LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123_000_000));
+
+        byte[] payload = codec.encode(event);
+        PageViewEvent decoded = codec.decodePageView(payload);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+        assertThat(payload[0]).isEqualTo(BinaryEventCodec.SCHEMA_VERSION);
+        assertThat(payload.length).isLessThan(jsonSerializer.toJson(event).length());
+    }
+
+    @Test
+    void testPageView_dictionaryPathIsEncodedAsCode() {
+        PageViewEvent known = new PageViewEvent("/checkout", null, null, null, null);
+        PageViewEvent unknown = new PageViewEvent("/checkout2", null, null, null, null);
+
+        byte[] knownPayload = codec.encode(known);
+
+        assertThat(knownPayload).hasSize(4);
+        assertThat(codec.decodePageView(knownPayload).getPath()).isEqualTo("/checkout");
+        assertThat(codec.decodePageView(codec.encode(unknown)).getPath()).isEqualTo("/checkout2");
+    }
+
+    @Test
+    void testPageView_timestampIsIndependentOfDefaultZone() {
+        PageViewEvent epoch = new PageViewEvent(null, null, null, null, LocalDateTime.of(1970, 1, 1, 0, 0));
+
+        byte[] payload = codec.encode(epoch);
+
+        assertThat(payload).hasSize(4);
+        assertThat(payload[3]).isZero();
+        assertThat(codec.decodePageView(payload).getVisitTime()).isEqualTo(epoch.getVisitTime());
+    }
+
+    @Test
+    void testPageView_keepsNullFields() {
+        PageViewEvent event = new PageViewEvent("/", "127.0.0.1", null, null, LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        PageViewEvent decoded = codec.decodePageView(codec.encode(event));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void testOrderInfo_roundTrips() {
+        OrderInfoDto dto = new OrderInfoDto(UUID.randomUUID(), LocalDateTime.of(2025, 3, 1, 12, 0), 300, 1500.5);
+
+        byte[] payload = codec.encode(dto);
+
+        assertThat(codec.decodeOrderInfo(payload)).usingRecursiveComparison().isEqualTo(dto);
+        assertThat(payload.length).isLessThan(jsonSerializer.toJson(dto).length());
+    }
+
+    @Test
+    void testDecode_rejectsForeignPayload() {
+        byte[] json = jsonSerializer.toJson(new OrderInfoDto(UUID.randomUUID(), null, 1, 1.0)).getBytes();
+        byte[] pageView = codec.encode(new PageViewEvent("/", null, null, null, null));
+
+        assertThatThrownBy(() -> codec.decodeOrderInfo(json)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decodeOrderInfo(pageView)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDecode_rejectsTruncatedPayload() {
+        byte[] pageView = codec.encode(new PageViewEvent("/custom", "127.0.0.1", USER_AGENT, "s1", LocalDateTime.now()));
+        byte[] orderInfo = codec.encode(new OrderInfoDto(UUID.randomUUID(), LocalDateTime.now(), 3, 99.9));
+
+        for (int length = 0; length < pageView.length; length++) {
+            byte[] truncated = Arrays.copyOf(pageView, length);
+            assertThatThrownBy(() -> codec.decodePageView(truncated))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Truncated event");
+        }
+        assertThatThrownBy(() -> codec.decodeOrderInfo(Arrays.copyOf(orderInfo, 10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("orderId");
+    }
+
+    @Test
+    void testDecode_rejectsMalformedLengthsAndVarints() {
+        byte[] header = {BinaryEventCodec.SCHEMA_VERSION, BinaryEventCodec.PAGE_VIEW_TYPE, 2};
+
+        assertThatThrownBy(() -> codec.decodePageView(concat(header, new byte[]{(byte) 0x80, 0x7F})))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("field ip needs 8128 bytes");
+        assertThatThrownBy(() -> codec.decodePageView(concat(header, new byte[]{0x01})))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Negative length");
+        byte[] endless = new byte[12];
+        Arrays.fill(endless, (byte) 0xFF);
+        assertThatThrownBy(() -> codec.decodePageView(concat(header, endless)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("longer than 10 bytes");
+        byte[] pathHeader = {BinaryEventCodec.SCHEMA_VERSION, BinaryEventCodec.PAGE_VIEW_TYPE, 1};
+        assertThatThrownBy(() -> codec.decodePageView(concat(pathHeader, new byte[]{0x7E})))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown path dictionary code");
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package org.site.honey_shop.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.dto.OrderInfoDto;
+import org.site.honey_shop.entity.PageViewEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaEventSerializerTest {
+
+    private final KafkaEventSerializer serializer = new KafkaEventSerializer();
+    private final ObjectMapper legacyMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void testToJson_pageViewMatchesLegacyFormat() throws Exception {
+        PageViewEvent event = new PageViewEvent("/catalog", "10.0.0.1", "Mozilla/5.0", "session",
+                LocalDateTime.of(2025, 3, 1, 12, 30, 15));
+
+        assertThat(serializer.toJson(event)).isEqualTo(legacyMapper.writeValueAsString(event));
+    }
+
+    @Test
+    void testToJson_orderInfoMatchesLegacyFormat() throws Exception {
+        OrderInfoDto dto = new OrderInfoDto(UUID.randomUUID(), LocalDateTime.of(2025, 3, 1, 12, 0), 3, 1500.0);
+
+        assertThat(serializer.toJson(dto)).isEqualTo(legacyMapper.writeValueAsString(dto));
+    }
+}
@@ -0,0 +1,157 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.dto.PageViewAggregateDto;
+import org.site.honey_shop.entity.PageViewEvent;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PageViewAggregatorTest {
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2025, 3, 1, 12, 30);
+
+    @Mock
+    private PageViewEventPublisher pageViewEventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testRecord_countsViewsPerPathSessionAndMinute() {
+        when(pageViewEventPublisher.publishPageViewAggregate(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewAggregator aggregator = aggregator(100);
+
+        aggregator.record(event("/", "s1", MINUTE.plusSeconds(5)));
+        aggregator.record(event("/", "s1", MINUTE.plusSeconds(50)));
+        aggregator.record(event("/", "s2", MINUTE.plusSeconds(10)));
+        aggregator.record(event("/", "s1", MINUTE.plusMinutes(1)));
+
+        assertThat(aggregator.flushBefore(MINUTE.plusMinutes(2))).isEqualTo(3);
+
+        ArgumentCaptor<PageViewAggregateDto> captor = ArgumentCaptor.forClass(PageViewAggregateDto.class);
+        verify(pageViewEventPublisher, times(3)).publishPageViewAggregate(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(PageViewAggregateDto::getSessionId, PageViewAggregateDto::getBucketTime, PageViewAggregateDto::getViews)
+                .containsExactlyInAnyOrder(tuple("s1", MINUTE, 2L), tuple("s2", MINUTE, 1L), tuple("s1", MINUTE.plusMinutes(1), 1L));
+        assertThat(meterRegistry.get("pageviews.aggregated").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("pageviews.aggregates.sent").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testFlush_keepsOpenBucketsUntilTheirMinuteIsOver() {
+        when(pageViewEventPublisher.publishPageViewAggregate(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewAggregator aggregator = aggregator(100);
+        aggregator.record(event("/cart", "s1", MINUTE));
+        aggregator.record(event("/cart", "s1", MINUTE.plusMinutes(1)));
+
+        assertThat(aggregator.flushBefore(MINUTE.plusMinutes(1))).isEqualTo(1);
+        aggregator.record(event("/cart", "s1", MINUTE.plusMinutes(1).plusSeconds(30)));
+        assertThat(aggregator.flushAll()).isEqualTo(1);
+
+        ArgumentCaptor<PageViewAggregateDto> captor = ArgumentCaptor.forClass(PageViewAggregateDto.class);
+        verify(pageViewEventPublisher, times(2)).publishPageViewAggregate(captor.capture());
+        assertThat(captor.getAllValues().get(1).getViews()).isEqualTo(2);
+        assertThat(meterRegistry.get("pageviews.aggregation.keys").gauge().value()).isZero();
+    }
+
+    @Test
+    void testRecord_dropsNewKeysOverLimit() {
+        PageViewAggregator aggregator = aggregator(2);
+
+        aggregator.record(event("/a", "s1", MINUTE));
+        aggregator.record(event("/b", "s1", MINUTE));
+        aggregator.record(event("/c", "s1", MINUTE));
+        aggregator.record(event("/a", "s1", MINUTE));
+
+        assertThat(meterRegistry.get("pageviews.aggregated").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("pageviews.aggregation.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pageviews.aggregation.keys").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testRecord_dropsViewsForAlreadyFlushedMinutes() {
+        when(pageViewEventPublisher.publishPageViewAggregate(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewAggregator aggregator = aggregator(100);
+        aggregator.record(event("/", "s1", MINUTE));
+        aggregator.flushBefore(MINUTE.plusMinutes(1));
+
+        aggregator.record(event("/", "s1", MINUTE.plusSeconds(59)));
+        aggregator.record(event("/", "s1", MINUTE.plusMinutes(1)));
+
+        assertThat(meterRegistry.get("pageviews.aggregation.late").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pageviews.aggregation.dropped").counter().count()).isZero();
+        assertThat(aggregator.flushBefore(MINUTE.plusMinutes(1))).isZero();
+        assertThat(aggregator.flushBefore(MINUTE.plusMinutes(2))).isEqualTo(1);
+        verify(pageViewEventPublisher, times(2)).publishPageViewAggregate(any());
+    }
+
+    @Test
+    void testRecord_concurrentNewKeysNeverExceedTheLimit() throws Exception {
+        PageViewAggregator aggregator = aggregator(50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    aggregator.record(event("/page/" + offset + "/" + i, "s", MINUTE));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(meterRegistry.get("pageviews.aggregation.keys").gauge().value()).isEqualTo(50);
+        assertThat(meterRegistry.get("pageviews.aggregated").counter().count()).isEqualTo(50);
+        assertThat(meterRegistry.get("pageviews.aggregation.dropped").counter().count()).isEqualTo(8_000 - 50);
+    }
+
+    @Test
+    void testRecord_concurrentWritersLoseNoViews() throws Exception {
+        when(pageViewEventPublisher.publishPageViewAggregate(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewAggregator aggregator = aggregator(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    aggregator.record(event("/page/" + (i % 10), "s", MINUTE));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        aggregator.flushAll();
+
+        ArgumentCaptor<PageViewAggregateDto> captor = ArgumentCaptor.forClass(PageViewAggregateDto.class);
+        verify(pageViewEventPublisher, times(10)).publishPageViewAggregate(captor.capture());
+        assertThat(captor.getAllValues()).allSatisfy(aggregate -> assertThat(aggregate.getViews()).isEqualTo(8_000));
+    }
+
+    private PageViewAggregator aggregator(int maxKeys) {
+        return new PageViewAggregator(pageViewEventPublisher, meterRegistry, true, 4, maxKeys);
+    }
+
+    private static PageViewEvent event(String path, String sessionId, LocalDateTime visitTime) {
+        return new PageViewEvent(path, "127.0.0.1", "JUnit", sessionId, visitTime);
+    }
+}
@@ -0,0 +1,84 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.kafka.PageViewClassifier.Classification;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageViewClassifierTest {
+
+    private static final String BROWSER =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0 Safari/537.36";
+
+    private SimpleMeterRegistry meterRegistry;
+    private PageViewClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        classifier = new PageViewClassifier(meterRegistry, List.of("honeyscan"), List.of("/static/", "/actuator"));
+    }
+
+    @Test
+    void testIsBot_matchesKnownTokensCaseInsensitively() {
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)")).isTrue();
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; YandexMetrika/2.0)")).isTrue();
+        assertThat(classifier.isBot("kube-probe/1.29")).isTrue();
+        assertThat(classifier.isBot("curl/8.5.0")).isTrue();
+        assertThat(classifier.isBot("HoneyScan/1.0")).isTrue();
+        assertThat(classifier.isBot(null)).isTrue();
+        assertThat(classifier.isBot(BROWSER)).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X) Яндекс")).isFalse();
+    }
+
+    @Test
+    void testIsBot_matchesWholeCrawlerNames() {
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; YandexBot/3.0; +http://yandex.com/bots)")).isTrue();
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; bingbot/2.0; +http://www.bing.com/bingbot.htm)")).isTrue();
+        assertThat(classifier.isBot("Mozilla/5.0 (compatible; AhrefsBot/7.0; +http://ahrefs.com/robot/)")).isTrue();
+        assertThat(classifier.isBot("TelegramBot (like TwitterBot)")).isTrue();
+    }
+
+    @Test
+    void testIsBot_doesNotMatchRealBrowsersContainingBotOrYandex() {
+        assertThat(classifier.isBot("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) " +
+                "Chrome/122.0.0.0 YaBrowser/24.4.0.0 Safari/537.36")).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (Linux; Android 13; SM-A525F) AppleWebKit/537.36 (KHTML, like Gecko) " +
+                "Chrome/120.0.0.0 YaApp_Android/24.10.1 YaSearchBrowser/24.10.1 BroPP/1.0 SA/3 Mobile Safari/537.36")).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15 " +
+                "(KHTML, like Gecko) Version/17.4 YandexSearch/8.10 Mobile/15E148 Safari/605.1")).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (Linux; Android 11; CUBOT KINGKONG 5 Pro) AppleWebKit/537.36 " +
+                "(KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36")).isFalse();
+        assertThat(classifier.isBot("Mozilla/5.0 (Linux; Android 10; Cubot_Note_7) AppleWebKit/537.36 " +
+                "(KHTML, like Gecko) Chrome/119.0 Mobile Safari/537.36")).isFalse();
+    }
+
+    @Test
+    void testIsBot_findsTokensOverlappingPartialMatches() {
+        assertThat(classifier.isBot("xxcrawlcrawler")).isTrue();
+        assertThat(classifier.isBot("spispider")).isTrue();
+        assertThat(classifier.isBot("robo-t")).isFalse();
+    }
+
+    @Test
+    void testClassify_countsEachClassification() {
+        assertThat(classifier.classify("/", BROWSER, null)).isEqualTo(Classification.PAGE);
+        assertThat(classifier.classify("/", "Googlebot/2.1", null)).isEqualTo(Classification.BOT);
+        assertThat(classifier.classify("/static/assets/css/main.css", BROWSER, null)).isEqualTo(Classification.EXCLUDED_PATH);
+        assertThat(classifier.classify("/actuator/health", "kube-probe/1.29", null)).isEqualTo(Classification.EXCLUDED_PATH);
+        assertThat(classifier.classify("/cart", BROWSER, "prefetch;prerender")).isEqualTo(Classification.PREFETCH);
+
+        assertThat(count("page")).isEqualTo(1);
+        assertThat(count("bot")).isEqualTo(1);
+        assertThat(count("excluded_path")).isEqualTo(2);
+        assertThat(count("prefetch")).isEqualTo(1);
+    }
+
+    private double count(String classification) {
+        return meterRegistry.get("pageviews.classified").tag("classification", classification).counter().count();
+    }
+}
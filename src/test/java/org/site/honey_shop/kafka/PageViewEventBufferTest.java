@@ -0,0 +1,109 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.entity.PageViewEvent;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PageViewEventBufferTest {
+
+    @Mock
+    private PageViewEventPublisher pageViewEventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testDrain_sendsQueuedEventsInBatches() {
+        when(pageViewEventPublisher.publishPageViewEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewEventBuffer buffer = buffer(10, 3, PageViewEventBuffer.DropPolicy.DROP_NEWEST);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(event("/page/" + i));
+        }
+
+        assertThat(buffer.drain()).isEqualTo(3);
+        assertThat(buffer.drain()).isEqualTo(2);
+        assertThat(buffer.drain()).isZero();
+
+        verify(pageViewEventPublisher, times(5)).publishPageViewEvent(any());
+        assertThat(counter("pageviews.enqueued")).isEqualTo(5);
+        assertThat(counter("pageviews.sent")).isEqualTo(5);
+        assertThat(counter("pageviews.dropped")).isZero();
+    }
+
+    @Test
+    void testOffer_dropNewestWhenFull() {
+        when(pageViewEventPublisher.publishPageViewEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewEventBuffer buffer = buffer(2, 10, PageViewEventBuffer.DropPolicy.DROP_NEWEST);
+
+        assertThat(buffer.offer(event("/a"))).isTrue();
+        assertThat(buffer.offer(event("/b"))).isTrue();
+        assertThat(buffer.offer(event("/c"))).isFalse();
+        buffer.drain();
+
+        ArgumentCaptor<PageViewEvent> captor = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(pageViewEventPublisher, times(2)).publishPageViewEvent(captor.capture());
+        assertThat(captor.getAllValues()).extracting(PageViewEvent::getPath).containsExactly("/a", "/b");
+        assertThat(counter("pageviews.dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void testOffer_dropOldestWhenFull() {
+        when(pageViewEventPublisher.publishPageViewEvent(any())).thenReturn(CompletableFuture.completedFuture(null));
+        PageViewEventBuffer buffer = buffer(2, 10, PageViewEventBuffer.DropPolicy.DROP_OLDEST);
+
+        buffer.offer(event("/a"));
+        buffer.offer(event("/b"));
+        assertThat(buffer.offer(event("/c"))).isTrue();
+        buffer.drain();
+
+        ArgumentCaptor<PageViewEvent> captor = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(pageViewEventPublisher, times(2)).publishPageViewEvent(captor.capture());
+        assertThat(captor.getAllValues()).extracting(PageViewEvent::getPath).containsExactly("/b", "/c");
+        assertThat(counter("pageviews.dropped")).isEqualTo(1);
+        assertThat(counter("pageviews.enqueued")).isEqualTo(3);
+    }
+
+    @Test
+    void testDrain_countsFailedSends() {
+        when(pageViewEventPublisher.publishPageViewEvent(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenThrow(new IllegalStateException("metadata timeout"));
+        PageViewEventBuffer buffer = buffer(10, 10, PageViewEventBuffer.DropPolicy.DROP_NEWEST);
+        buffer.offer(event("/a"));
+        buffer.offer(event("/b"));
+
+        buffer.drain();
+
+        assertThat(counter("pageviews.failed")).isEqualTo(2);
+        assertThat(counter("pageviews.sent")).isZero();
+    }
+
+    private PageViewEventBuffer buffer(int capacity, int batchSize, PageViewEventBuffer.DropPolicy dropPolicy) {
+        return new PageViewEventBuffer(pageViewEventPublisher, meterRegistry, capacity, batchSize, 10, dropPolicy);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static PageViewEvent event(String path) {
+        return new PageViewEvent(path, "127.0.0.1", "JUnit", null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,49 @@
+package org.site.honey_shop.kafka;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PageViewEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private final KafkaEventSerializer kafkaEventSerializer = new KafkaEventSerializer();
+    private final BinaryEventCodec binaryEventCodec = new BinaryEventCodec();
+
+    private PageViewEventPublisher publisher;
+    private PageViewEvent event;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new PageViewEventPublisher(kafkaTemplate, kafkaEventSerializer, binaryEventCodec);
+        event = new PageViewEvent("/cart", "10.0.0.1", "Mozilla/5.0", "session", LocalDateTime.of(2025, 3, 1, 12, 0));
+    }
+
+    @Test
+    void testPublish_sendsJsonByDefault() {
+        publisher.publishPageViewEvent(event);
+
+        verify(kafkaTemplate).send("page-view-info", kafkaEventSerializer.toJson(event));
+    }
+
+    @Test
+    void testPublish_sendsBinaryWhenConfigured() {
+        publisher.setEncoding(EventEncoding.BINARY);
+
+        publisher.publishPageViewEvent(event);
+
+        verify(kafkaTemplate).send(eq("page-view-info"), eq(binaryEventCodec.encode(event)));
+    }
+}
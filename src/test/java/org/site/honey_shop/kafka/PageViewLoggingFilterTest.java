@@ -0,0 +1,85 @@
+package org.site.honey_shop.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.entity.PageViewEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PageViewLoggingFilterTest {
+
+    @Mock
+    private PageViewEventBuffer pageViewEventBuffer;
+
+    @Mock
+    private PageViewAggregator pageViewAggregator;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private PageViewLoggingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        PageViewClassifier classifier = new PageViewClassifier(new SimpleMeterRegistry(), List.of(), List.of("/static/"));
+        filter = new PageViewLoggingFilter(pageViewEventBuffer, pageViewAggregator, classifier);
+    }
+
+    @Test
+    void testFilter_publishesBrowserPageViewWithSession() throws Exception {
+        MockHttpServletRequest request = htmlRequest("/cart", "Mozilla/5.0");
+        String sessionId = request.getSession(true).getId();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        ArgumentCaptor<PageViewEvent> captor = ArgumentCaptor.forClass(PageViewEvent.class);
+        verify(pageViewEventBuffer).offer(captor.capture());
+        assertThat(captor.getValue().getPath()).isEqualTo("/cart");
+        assertThat(captor.getValue().getSessionId()).isEqualTo(sessionId);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void testFilter_skipsBotsPrefetchesAndExcludedPaths() throws Exception {
+        MockHttpServletRequest prefetch = htmlRequest("/", "Mozilla/5.0");
+        prefetch.addHeader("Sec-Purpose", "prefetch");
+
+        filter.doFilter(htmlRequest("/", "Googlebot/2.1"), new MockHttpServletResponse(), filterChain);
+        filter.doFilter(htmlRequest("/static/index.html", "Mozilla/5.0"), new MockHttpServletResponse(), filterChain);
+        filter.doFilter(prefetch, new MockHttpServletResponse(), filterChain);
+
+        verifyNoInteractions(pageViewEventBuffer, pageViewAggregator);
+        verify(filterChain, times(3)).doFilter(any(), any());
+    }
+
+    @Test
+    void testFilter_routesToAggregatorWhenEnabled() throws Exception {
+        when(pageViewAggregator.isEnabled()).thenReturn(true);
+
+        filter.doFilter(htmlRequest("/", "Mozilla/5.0"), new MockHttpServletResponse(), filterChain);
+
+        verify(pageViewAggregator).record(any(PageViewEvent.class));
+        verifyNoInteractions(pageViewEventBuffer);
+    }
+
+    private static MockHttpServletRequest htmlRequest(String path, String userAgent) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader("Accept", "text/html,application/xhtml+xml");
+        request.addHeader("User-Agent", userAgent);
+        return request;
+    }
+}
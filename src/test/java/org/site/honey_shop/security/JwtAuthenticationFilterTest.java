@@ -1,5 +1,7 @@
 package org.site.honey_shop.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,12 +13,14 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.site.honey_shop.entity.Token;
 import org.site.honey_shop.service.AuthService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,9 +37,6 @@ class JwtAuthenticationFilterTest {
     @Mock
     private AuthService authService;
 
-    @Mock
-    private UserDetailsService userDetailsService;
-
     @Mock
     private HttpServletRequest request;
 
@@ -45,9 +46,6 @@ class JwtAuthenticationFilterTest {
     @Mock
     private FilterChain filterChain;
 
-    @Mock
-    private UserDetails userDetails;
-
     @Mock
     private Token token;
 
@@ -70,7 +68,7 @@ class JwtAuthenticationFilterTest {
 
         verify(authService).logout(eq(accessTokenValue), eq(request), eq(response));
         verify(filterChain).doFilter(request, response);
-        verifyNoMoreInteractions(jwtService, userDetailsService);
+        verifyNoMoreInteractions(jwtService);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -87,7 +85,7 @@ class JwtAuthenticationFilterTest {
         String expectedRedirect = "/app/error?errorMessage=" + URLEncoder.encode("Access token not found", StandardCharsets.UTF_8);
 
         verify(response).sendRedirect(expectedRedirect);
-        verifyNoInteractions(authService, jwtService, userDetailsService);
+        verifyNoInteractions(authService, jwtService);
         verifyNoMoreInteractions(filterChain);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -102,20 +100,17 @@ class JwtAuthenticationFilterTest {
                 new Cookie("access_token", accessTokenValue)
         });
 
-        when(jwtService.isAccessTokenExpiredAndInvalid(accessTokenValue)).thenReturn(false);
-        when(jwtService.extractUserName(accessTokenValue)).thenReturn("username");
-        when(userDetailsService.loadUserByUsername("username")).thenReturn(userDetails);
-        when(userDetails.getAuthorities()).thenReturn(null);
-        when(userDetails.getUsername()).thenReturn("username");
+        when(jwtService.validateAccessToken(accessTokenValue)).thenReturn(Optional.of(claims("username", "ROLE_ADMIN")));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
-        assertEquals("username", SecurityContextHolder.getContext().getAuthentication().getName());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("username", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
 
-        verify(jwtService).isAccessTokenExpiredAndInvalid(accessTokenValue);
-        verify(jwtService).extractUserName(accessTokenValue);
-        verify(userDetailsService).loadUserByUsername("username");
+        verify(jwtService).validateAccessToken(accessTokenValue);
+        verifyNoMoreInteractions(jwtService);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -133,7 +128,7 @@ class JwtAuthenticationFilterTest {
                 new Cookie("refresh_token", refreshTokenValue)
         });
 
-        when(jwtService.isAccessTokenExpiredAndInvalid(expiredAccessToken)).thenReturn(true);
+        when(jwtService.validateAccessToken(expiredAccessToken)).thenReturn(Optional.empty());
         when(jwtService.isRefreshTokenExpiredAndInvalid(refreshTokenValue)).thenReturn(false);
 
         when(jwtService.findByRefreshToken(refreshTokenValue)).thenReturn(token);
@@ -145,10 +140,7 @@ class JwtAuthenticationFilterTest {
 
         doNothing().when(jwtService).invalidateToken(token);
 
-        when(jwtService.extractUserName(newAccessToken)).thenReturn("userRefreshed");
-        when(userDetailsService.loadUserByUsername("userRefreshed")).thenReturn(userDetails);
-        when(userDetails.getAuthorities()).thenReturn(null);
-        when(userDetails.getUsername()).thenReturn("userRefreshed");
+        when(jwtService.validateAccessToken(newAccessToken)).thenReturn(Optional.of(claims("userRefreshed", "ROLE_ADMIN")));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -171,7 +163,7 @@ class JwtAuthenticationFilterTest {
                 new Cookie("access_token", expiredAccessToken)
         });
 
-        when(jwtService.isAccessTokenExpiredAndInvalid(expiredAccessToken)).thenReturn(true);
+        when(jwtService.validateAccessToken(expiredAccessToken)).thenReturn(Optional.empty());
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -192,7 +184,7 @@ class JwtAuthenticationFilterTest {
                 new Cookie("refresh_token", refreshTokenValue)
         });
 
-        when(jwtService.isAccessTokenExpiredAndInvalid(expiredAccessToken)).thenReturn(true);
+        when(jwtService.validateAccessToken(expiredAccessToken)).thenReturn(Optional.empty());
         when(jwtService.isRefreshTokenExpiredAndInvalid(refreshTokenValue)).thenReturn(false);
 
         when(jwtService.findByRefreshToken(refreshTokenValue)).thenReturn(token);
@@ -228,4 +220,11 @@ class JwtAuthenticationFilterTest {
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
+
+    private static Claims claims(String username, String... authorities) {
+        return Jwts.claims()
+                .subject(username)
+                .add("authorities", List.of(authorities))
+                .build();
+    }
 }
@@ -1,24 +1,22 @@
 package org.site.honey_shop.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.mockito.junit.jupiter.MockitoSettings;
-import org.mockito.quality.Strictness;
-import org.site.honey_shop.dto.UserResponseDTO;
+import org.site.honey_shop.entity.Authority;
 import org.site.honey_shop.entity.Role;
 import org.site.honey_shop.entity.Token;
+import org.site.honey_shop.entity.User;
 import org.site.honey_shop.repository.TokenRepository;
-import org.site.honey_shop.service.UserService;
-import org.springframework.context.ApplicationContext;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.test.util.ReflectionTestUtils;
-
-import java.time.LocalDate;
+import org.site.honey_shop.repository.UserRepository;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -32,66 +30,56 @@ class JwtServiceTest {
     private TokenRepository tokenRepository;
 
     @Mock
-    private ApplicationContext context;
-
-    @Mock
-    private UserService userService;
+    private UserRepository userRepository;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private TokenDenyList tokenDenyList;
 
-    @InjectMocks
     private JwtService jwtService;
 
+    private static final byte[] SECRET = "my-very-secret-key-my-very-secret-key".getBytes();
+
     @BeforeEach
     void setUp() {
-        String secretKey = Base64.getEncoder().encodeToString("my-very-secret-key-my-very-secret-key".getBytes());
-        jwtService = new JwtService(userService, context, tokenRepository);
-        ReflectionTestUtils.setField(jwtService, "secretKey", secretKey);
+        String secretKey = Base64.getEncoder().encodeToString(SECRET);
+        jwtService = new JwtService(secretKey, userRepository, tokenRepository, tokenDenyList);
     }
 
     @Test
-    @MockitoSettings(strictness = Strictness.LENIENT)
     void testGenerateAccessTokenAndExtractUsername() {
-
-        lenient().when(context.getBean(UserDetailsService.class)).thenReturn(userDetailsService);
-
         String username = "testuser";
+        UUID userId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+        User user = User.builder()
+                .userId(userId)
+                .username(username)
+                .role(Role.ROLE_ADMIN)
+                .build();
+        user.setAuthorities(new HashSet<>(List.of(
+                Authority.builder().username(username).authority("ROLE_USER").build(),
+                Authority.builder().username(username).authority("ROLE_ADMIN").build())));
 
-        UserDetails userDetails = mock(UserDetails.class);
-        when(userDetails.getUsername()).thenReturn(username);
-        when(userDetails.getAuthorities()).thenAnswer(invocation -> {
-            return Arrays.asList(
-                    new SimpleGrantedAuthority("ROLE_USER"),
-                    new SimpleGrantedAuthority("ROLE_ADMIN")
-            );
-        });
-
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-
-        when(userService.findByUsername(username)).thenReturn(new UserResponseDTO(
-                UUID.fromString("123e4567-e89b-12d3-a456-426614174000"),
-                "testuser",
-                "John",
-                "Doe",
-                "Michael",
-                "testuser@example.com",
-                "+1234567890",
-                "photo.jpg",
-                LocalDate.of(1990, 1, 1),
-                Role.ROLE_ADMIN,
-                true,
-                LocalDateTime.now()
-        ));
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
+        when(tokenDenyList.isDenied(any())).thenReturn(false);
 
         String token = jwtService.generateAccessToken(username);
         assertNotNull(token);
 
         String extractedUsername = jwtService.extractUserName(token);
         assertEquals(username, extractedUsername);
-        verify(context).getBean(UserDetailsService.class);
+
+        Claims claims = jwtService.validateAccessToken(token).orElseThrow();
+        assertEquals(userId.toString(), claims.get("userId", String.class));
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), Set.copyOf(claims.get("authorities", List.class)));
+        verify(userRepository, times(1)).findByUsername(username);
     }
 
+    @Test
+    void testGenerateAccessToken_UnknownUser() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> jwtService.generateAccessToken("ghost"));
+    }
 
     @Test
     void testGenerateRefreshTokenAndExtractUsername() {
@@ -177,41 +165,80 @@ class JwtServiceTest {
 
     @Test
     void testIsAccessTokenExpiredAndInvalid_NotExpiredAndValid() {
-        Token token = new Token();
-        token.setAccessTokenValid(true);
-        token.setCreateDate(LocalDateTime.now().minusMinutes(5));
+        String accessToken = accessToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+        when(tokenDenyList.isDenied("jti-1")).thenReturn(false);
 
-        when(tokenRepository.findByAccessToken("access")).thenReturn(Optional.of(token));
-
-        boolean expired = jwtService.isAccessTokenExpiredAndInvalid("access");
+        boolean expired = jwtService.isAccessTokenExpiredAndInvalid(accessToken);
 
         assertFalse(expired);
+        verifyNoInteractions(tokenRepository);
     }
 
     @Test
     void testIsAccessTokenExpiredAndInvalid_Expired() {
-        Token token = new Token();
-        token.setAccessTokenValid(true);
-        token.setCreateDate(LocalDateTime.now().minusMinutes(16)); // больше 15 мин
+        String accessToken = accessToken("jti-1", new Date(System.currentTimeMillis() - 1_000));
 
-        when(tokenRepository.findByAccessToken("access")).thenReturn(Optional.of(token));
+        boolean expired = jwtService.isAccessTokenExpiredAndInvalid(accessToken);
 
-        boolean expired = jwtService.isAccessTokenExpiredAndInvalid("access");
+        assertTrue(expired);
+        verifyNoInteractions(tokenRepository, tokenDenyList);
+    }
+
+    @Test
+    void testIsAccessTokenExpiredAndInvalid_Denied() {
+        String accessToken = accessToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+        when(tokenDenyList.isDenied("jti-1")).thenReturn(true);
+
+        boolean expired = jwtService.isAccessTokenExpiredAndInvalid(accessToken);
 
         assertTrue(expired);
     }
 
     @Test
-    void testIsAccessTokenExpiredAndInvalid_InvalidFlag() {
+    void testIsAccessTokenExpiredAndInvalid_ForeignSignature() {
+        String accessToken = Jwts.builder()
+                .subject("testuser")
+                .id("jti-1")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-key-another-secret-key".getBytes()))
+                .compact();
+
+        assertTrue(jwtService.isAccessTokenExpiredAndInvalid(accessToken));
+        verifyNoInteractions(tokenDenyList);
+    }
+
+    @Test
+    void testValidateAccessToken_ReturnsClaimsWithAuthorities() {
+        String accessToken = accessToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+        when(tokenDenyList.isDenied("jti-1")).thenReturn(false);
+
+        Optional<Claims> claims = jwtService.validateAccessToken(accessToken);
+
+        assertTrue(claims.isPresent());
+        assertEquals("testuser", claims.get().getSubject());
+        assertEquals(List.of("ROLE_ADMIN"), claims.get().get("authorities", List.class));
+    }
+
+    @Test
+    void testInvalidateToken_DeniesAccessTokenJti() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
         Token token = new Token();
-        token.setAccessTokenValid(false);
-        token.setCreateDate(LocalDateTime.now());
+        token.setAccessToken(accessToken("jti-1", expiration));
 
-        when(tokenRepository.findByAccessToken("access")).thenReturn(Optional.of(token));
+        jwtService.invalidateToken(token);
 
-        boolean expired = jwtService.isAccessTokenExpiredAndInvalid("access");
+        verify(tokenDenyList).deny("jti-1", Instant.ofEpochSecond(expiration.getTime() / 1000));
+    }
 
-        assertTrue(expired);
+    private static String accessToken(String jti, Date expiration) {
+        return Jwts.builder()
+                .subject("testuser")
+                .claim("authorities", List.of("ROLE_ADMIN"))
+                .id(jti)
+                .issuedAt(new Date())
+                .expiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(SECRET))
+                .compact();
     }
 
     @Test
@@ -0,0 +1,57 @@
+package org.site.honey_shop.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenDenyListTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private TokenDenyList tokenDenyList;
+
+    @Test
+    void testDeny_storesJtiWithRemainingLifetime() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        tokenDenyList.deny("jti-1", Instant.now().plusSeconds(600));
+
+        verify(valueOperations).set(eq("jwt::deny::jti-1"), eq("1"),
+                argThat((Duration ttl) -> ttl.compareTo(Duration.ofSeconds(590)) > 0 && ttl.compareTo(Duration.ofSeconds(600)) <= 0));
+        assertTrue(tokenDenyList.isDenied("jti-1"));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void testDeny_ignoresAlreadyExpiredToken() {
+        tokenDenyList.deny("jti-1", Instant.now().minusSeconds(1));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testIsDenied_fallsBackToRedis() {
+        when(redisTemplate.hasKey("jwt::deny::jti-2")).thenReturn(true);
+        when(redisTemplate.hasKey("jwt::deny::jti-3")).thenReturn(false);
+
+        assertTrue(tokenDenyList.isDenied("jti-2"));
+        assertFalse(tokenDenyList.isDenied("jti-3"));
+    }
+}
@@ -156,4 +156,33 @@ class JwtServiceIT extends TestContainerConfig {
 
         assertThat(isExpiredOrInvalid).isFalse();
     }
+
+    @Test
+    void testInvalidatedAccessTokenIsRejectedWithoutDbLookup() {
+        User user = User.builder()
+                .username("revokeduser")
+                .password("Password1!")
+                .firstName("Revoked")
+                .lastName("User")
+                .middleName("Middle")
+                .email("revoked@example.com")
+                .phone("+7 (903) 123-45-67")
+                .birthDate(LocalDate.of(1995, 5, 5))
+                .role(Role.ROLE_ADMIN)
+                .enabled(true)
+                .build();
+
+        user = userService.save(user, null);
+
+        String accessToken = jwtService.generateAccessToken(user.getUsername());
+        String refreshToken = jwtService.generateRefreshToken(user.getUsername());
+        Token token = jwtService.saveToken(user.getUsername(), accessToken, refreshToken);
+
+        assertThat(jwtService.validateAccessToken(accessToken)).isPresent();
+
+        jwtService.invalidateToken(token);
+        tokenRepository.deleteAll();
+
+        assertThat(jwtService.validateAccessToken(accessToken)).isEmpty();
+    }
 }
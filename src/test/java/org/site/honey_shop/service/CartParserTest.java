@@ -0,0 +1,102 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.dto.CartLine;
+import org.site.honey_shop.exception.OrderCreateException;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CartParserTest {
+
+    private final CartParser cartParser = new CartParser(new ObjectMapper());
+
+    @Test
+    void testParse_readsProductIdAndQuantityIgnoringOtherFields() {
+        UUID productId = UUID.randomUUID();
+        String json = "[{\"order\":null,\"product\":{\"productId\":\"" + productId + "\",\"name\":\"Мёд\",\"images\":[\"a.jpg\"]}," +
+                "\"quantity\":2,\"pricePerUnit\":3000}]";
+
+        List<CartLine> lines = cartParser.parse(json);
+
+        assertThat(lines).containsExactly(new CartLine(productId, 2));
+    }
+
+    @Test
+    void testParse_mergesDuplicateLinesPreservingOrder() {
+        UUID honeyId = UUID.randomUUID();
+        UUID pollenId = UUID.randomUUID();
+        String json = "[" + line(honeyId, 1) + "," + line(pollenId, 2) + "," + line(honeyId, 3) + "]";
+
+        List<CartLine> lines = cartParser.parse(json);
+
+        assertThat(lines).containsExactly(new CartLine(honeyId, 4), new CartLine(pollenId, 2));
+    }
+
+    @Test
+    void testParse_rejectsMalformedJson() {
+        assertThatThrownBy(() -> cartParser.parse("invalid-json"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Ошибка при разборе JSON");
+        assertThatThrownBy(() -> cartParser.parse("{\"quantity\":1}"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Ошибка при разборе JSON");
+        assertThatThrownBy(() -> cartParser.parse("[{\"product\":{\"productId\":\"not-a-uuid\"},\"quantity\":1}]"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Ошибка при разборе JSON");
+        assertThatThrownBy(() -> cartParser.parse("[{\"product\":{\"productId\":\"" + UUID.randomUUID() + "\"},\"quantity\":\"1\"}]"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Ошибка при разборе JSON");
+    }
+
+    @Test
+    void testParse_rejectsEmptyCart() {
+        assertThatThrownBy(() -> cartParser.parse("[]"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Корзина пуста");
+        assertThatThrownBy(() -> cartParser.parse(" "))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Корзина пуста");
+    }
+
+    @Test
+    void testParse_rejectsQuantityOutOfBounds() {
+        UUID productId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> cartParser.parse("[" + line(productId, 0) + "]"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Некорректное количество");
+        assertThatThrownBy(() -> cartParser.parse("[" + line(productId, CartParser.MAX_QUANTITY) + "," + line(productId, 1) + "]"))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Некорректное количество");
+    }
+
+    @Test
+    void testParse_rejectsTooManyLines() {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int i = 0; i <= CartParser.MAX_LINES; i++) {
+            json.add(line(UUID.randomUUID(), 1));
+        }
+
+        assertThatThrownBy(() -> cartParser.parse(json.toString()))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Слишком много позиций");
+    }
+
+    @Test
+    void testParse_rejectsOversizedPayload() {
+        String json = "[" + " ".repeat(CartParser.MAX_JSON_LENGTH) + "]";
+
+        assertThatThrownBy(() -> cartParser.parse(json))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Слишком большой заказ");
+    }
+
+    private static String line(UUID productId, int quantity) {
+        return "{\"product\":{\"productId\":\"" + productId + "\"},\"quantity\":" + quantity + ",\"pricePerUnit\":100}";
+    }
+}
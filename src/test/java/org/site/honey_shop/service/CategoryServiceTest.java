@@ -30,6 +30,9 @@ class CategoryServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private MainPageService mainPageService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -271,6 +274,7 @@ class CategoryServiceTest {
 
         verify(productRepository).saveAll(products);
         verify(categoryRepository).delete(category);
+        verify(mainPageService).refreshShowcaseSnapshot();
     }
 
     @Test
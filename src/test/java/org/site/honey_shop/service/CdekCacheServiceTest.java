@@ -1,28 +1,39 @@
 package org.site.honey_shop.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeoutException;
+import java.util.Set;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 class CdekCacheServiceTest {
 
-    @InjectMocks
     private CdekCacheService cdekCacheService;
 
     @Mock
@@ -34,52 +45,201 @@ class CdekCacheServiceTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
+    @Mock
+    private SetOperations<String, String> setOperations;
+
     @Mock
     private ListOperations<String, String> listOperations;
 
     @Mock
-    private ExecutorService executor;
+    private RedisTemplate<String, byte[]> payloadRedisTemplate;
+
+    @Mock
+    private HashOperations<String, String, byte[]> hashOperations;
+
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private SimpleMeterRegistry meterRegistry;
+    private CdekLocalCache localCache;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        localCache = new CdekLocalCache(meterRegistry);
+        localCache.setMaxBytes(1 << 20);
+        cdekCacheService = new CdekCacheService(redisTemplate, payloadRedisTemplate, restTemplate, refreshExecutor, localCache, meterRegistry);
         cdekCacheService.setBaseUrl("http://example.com/api");
         cdekCacheService.setCdekCacheKeys("cdek::keys");
-        cdekCacheService.setMaxRetries(3);
-        cdekCacheService.setRetryDelayMs(100);
-        cdekCacheService.setSleepBetweenAttemptsMs(100);
-        cdekCacheService.setTimeoutMinutes(1);
+        cdekCacheService.setSoftTtlSeconds(3600);
+        cdekCacheService.setHardTtlSeconds(86400);
+        cdekCacheService.setOldGenerationTtlSeconds(300);
+        cdekCacheService.setLockTtlMs(30000);
+        cdekCacheService.setLockWaitMs(2000);
+        cdekCacheService.setLockPollMs(5);
 
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
         when(redisTemplate.opsForList()).thenReturn(listOperations);
+        when(payloadRedisTemplate.<String, byte[]>opsForHash()).thenReturn(hashOperations);
+        when(valueOperations.setIfAbsent(startsWith("cdek::lock::"), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
     }
 
     @Test
     void testGetOfficesWithCaching_fromCache() {
         Map<String, String> params = Map.of("action", "offices");
-        String cacheKey = "cdek::action=offices";
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        cached("cdek::g3::action=offices", "cached-data", System.currentTimeMillis());
+
+        String result = cdekCacheService.getOfficesWithCaching(params);
 
-        when(valueOperations.get(cacheKey)).thenReturn("cached-data");
+        assertEquals("cached-data", result);
+        verifyNoInteractions(restTemplate);
+        assertEquals(1, meterRegistry.get("cdek.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testGetOfficesWithCaching_repeatedReadsServedFromLocalCache() {
+        Map<String, String> params = Map.of("action", "offices");
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        cached("cdek::g3::action=offices", "cached-data", System.currentTimeMillis());
 
+        cdekCacheService.getOfficesWithCaching(params);
         String result = cdekCacheService.getOfficesWithCaching(params);
 
         assertEquals("cached-data", result);
-        verify(valueOperations).get(cacheKey);
+        verify(hashOperations, times(1)).multiGet(anyString(), anyCollection());
+        assertEquals(2, meterRegistry.get("cdek.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("cdek.cache.l1.requests").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testGetOfficesWithCaching_staleServedWhileRefreshingInBackground() {
+        Map<String, String> params = Map.of("action", "offices");
+        String url = "http://example.com/api?action=offices";
+        long twoHoursAgo = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        cached("cdek::g3::action=offices", "stale-data", twoHoursAgo);
+        when(restTemplate.getForObject(url, String.class)).thenReturn("fresh-data");
+
+        String result = cdekCacheService.getOfficesWithCaching(params);
+
+        assertEquals("stale-data", result);
+        verify(hashOperations, timeout(2000)).putAll(eq("cdek::g3::action=offices"), argThat(fields ->
+                "fresh-data".equals(gunzip(fields.get("body")))));
+        assertEquals(1, meterRegistry.get("cdek.cache.requests").tag("result", "stale").counter().count());
+        verify(restTemplate, times(1)).getForObject(url, String.class);
+    }
+
+    @Test
+    void testGetOfficesWithCaching_failedBackgroundRefreshKeepsStaleCopy() {
+        Map<String, String> params = Map.of("action", "offices");
+        String url = "http://example.com/api?action=offices";
+        long twoHoursAgo = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        cached("cdek::g3::action=offices", "stale-data", twoHoursAgo);
+        when(restTemplate.getForObject(url, String.class)).thenReturn("<b>Fatal error</b>");
+
+        assertEquals("stale-data", cdekCacheService.getOfficesWithCaching(params));
+
+        verify(redisTemplate, timeout(2000)).execute(any(RedisScript.class), eq(List.of("cdek::lock::action=offices")), anyString());
+        verify(hashOperations, never()).putAll(anyString(), anyMap());
     }
 
     @Test
     void testGetOfficesWithCaching_noCache() {
         Map<String, String> params = Map.of("action", "offices");
-        String cacheKey = "cdek::action=offices";
         String url = "http://example.com/api?action=offices";
 
-        when(valueOperations.get(cacheKey)).thenReturn(null);
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        when(restTemplate.getForObject(url, String.class)).thenReturn("fresh-data");
+
+        String result = cdekCacheService.getOfficesWithCaching(params);
+
+        assertEquals("fresh-data", result);
+        verify(hashOperations).putAll(eq("cdek::g3::action=offices"), argThat(fields ->
+                "fresh-data".equals(gunzip(fields.get("body"))) && fields.containsKey("fetchedAt")));
+        verify(redisTemplate).expire("cdek::g3::action=offices", Duration.ofSeconds(86400));
+        verify(setOperations).add("cdek::keys::3", "cdek::g3::action=offices");
+        assertEquals(1, meterRegistry.get("cdek.cache.requests").tag("result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get("cdek.cache.refresh.latency").timer().count());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("cdek::lock::action=offices")), anyString());
+        assertEquals(1, meterRegistry.get("cdek.cache.upstream.fetches").counter().count());
+    }
+
+    @Test
+    void testGetOfficesWithCaching_coalescesConcurrentMisses() throws Exception {
+        Map<String, String> params = Map.of("action", "offices");
+        String url = "http://example.com/api?action=offices";
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        when(restTemplate.getForObject(url, String.class)).thenAnswer(invocation -> {
+            fetchStarted.countDown();
+            releaseFetch.await();
+            return "fresh-data";
+        });
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            Future<String> leader = executor.submit(() -> cdekCacheService.getOfficesWithCaching(params));
+            fetchStarted.await(5, TimeUnit.SECONDS);
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                followers.add(executor.submit(() -> cdekCacheService.getOfficesWithCaching(params)));
+            }
+            while (meterRegistry.get("cdek.cache.coalesced").tag("scope", "local").counter().count() < callers - 1) {
+                Thread.sleep(5);
+            }
+            releaseFetch.countDown();
+
+            assertEquals("fresh-data", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("fresh-data", follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(restTemplate, times(1)).getForObject(url, String.class);
+        assertEquals(1, meterRegistry.get("cdek.cache.upstream.fetches").counter().count());
+    }
+
+    @Test
+    void testGetOfficesWithCaching_waitsForInstanceHoldingTheLock() {
+        Map<String, String> params = Map.of("action", "offices");
+        when(valueOperations.setIfAbsent(eq("cdek::lock::action=offices"), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.hasKey("cdek::lock::action=offices")).thenReturn(true);
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
+        when(hashOperations.multiGet(eq("cdek::g3::action=offices"), anyCollection())).thenReturn(
+                Arrays.asList(null, null), Arrays.asList(null, null),
+                List.of(gzip("peer-data"), fetchedAt(System.currentTimeMillis())));
+
+        String result = cdekCacheService.getOfficesWithCaching(params);
+
+        assertEquals("peer-data", result);
+        verifyNoInteractions(restTemplate);
+        assertEquals(1, meterRegistry.get("cdek.cache.coalesced").tag("scope", "remote").counter().count());
+    }
+
+    @Test
+    void testGetOfficesWithCaching_fetchesItselfWhenLockHolderGivesUp() {
+        Map<String, String> params = Map.of("action", "offices");
+        String url = "http://example.com/api?action=offices";
+        when(valueOperations.setIfAbsent(eq("cdek::lock::action=offices"), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.hasKey("cdek::lock::action=offices")).thenReturn(false);
+        when(valueOperations.get("cdek::generation")).thenReturn("3");
         when(restTemplate.getForObject(url, String.class)).thenReturn("fresh-data");
 
         String result = cdekCacheService.getOfficesWithCaching(params);
 
         assertEquals("fresh-data", result);
-        verify(valueOperations).set(cacheKey, "fresh-data");
+        assertEquals(1, meterRegistry.get("cdek.cache.lock.wait.timeouts").counter().count());
     }
 
     @Test
@@ -89,12 +249,52 @@ class CdekCacheServiceTest {
         String url = "http://example.com/api?action=offices";
 
         when(restTemplate.getForObject(url, String.class)).thenReturn("updated-data");
+        when(valueOperations.get("cdek::generation")).thenReturn(null, "0");
 
-        String result = cdekCacheService.updateCache(params, cacheKey);
+        byte[] result = cdekCacheService.updateCache(params, cacheKey);
 
-        assertEquals("updated-data", result);
-        verify(valueOperations).set(cacheKey, "updated-data");
-        verify(listOperations).rightPush("cdek::keys", cacheKey);
+        assertEquals("updated-data", gunzip(result));
+        verify(valueOperations).setIfAbsent("cdek::generation", "0");
+        verify(hashOperations).putAll(eq("cdek::g0::action=offices"), argThat(fields ->
+                "updated-data".equals(gunzip(fields.get("body")))));
+        verify(setOperations).add("cdek::keys::0", "cdek::g0::action=offices");
+    }
+
+    @Test
+    void testActivateGeneration_flipsPointerAndExpiresPreviousGeneration() {
+        when(valueOperations.getAndSet("cdek::generation", "5")).thenReturn("4");
+        when(setOperations.members("cdek::keys::4")).thenReturn(Set.of("cdek::g4::action=offices"));
+
+        localCache.put("cdek::action=offices", new CdekCacheService.CachedEntry(gzip("old"), System.currentTimeMillis()), localCache.epoch());
+
+        cdekCacheService.activateGeneration("5");
+
+        assertEquals(0, localCache.size());
+        verify(redisTemplate).convertAndSend("cdek::generation::events", "5");
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    void testActivateGeneration_firstGenerationExpiresNothingAndDropsLegacyKeys() {
+        when(valueOperations.getAndSet("cdek::generation", "1")).thenReturn(null);
+        when(listOperations.range("cdek::keys", 0, -1)).thenReturn(List.of("cdek::action=offices", "cdek::action=offices&page=1"));
+
+        cdekCacheService.activateGeneration("1");
+
+        verifyNoInteractions(setOperations);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate).delete(List.of("cdek::action=offices", "cdek::action=offices&page=1", "cdek::keys"));
+    }
+
+    @Test
+    void testDiscardGeneration_deletesKeysAndRegistry() {
+        when(setOperations.members("cdek::keys::6")).thenReturn(Set.of("cdek::g6::page=0"));
+
+        cdekCacheService.discardGeneration("6");
+
+        verify(redisTemplate).delete(List.of("cdek::g6::page=0", "cdek::keys::6"));
+        verify(valueOperations, never()).getAndSet(anyString(), anyString());
     }
 
     @Test
@@ -128,26 +328,20 @@ class CdekCacheServiceTest {
         assertEquals("cdek::a=1&b=2", key);
     }
 
-    @Test
-    void testScheduledRefreshWithTimeout_success() throws Exception {
-        Future<Object> mockFuture = mock(Future.class);
-
-        when(executor.submit(any(Runnable.class))).thenReturn((Future) mockFuture);
-        when(mockFuture.get(anyLong(), any())).thenReturn(null);
-
-        cdekCacheService.scheduledRefreshWithTimeout();
-
-        verify(mockFuture).get(anyLong(), any());
+    private void cached(String key, String body, long fetchedAtMillis) {
+        when(hashOperations.multiGet(eq(key), anyCollection()))
+                .thenReturn(List.of(gzip(body), fetchedAt(fetchedAtMillis)));
     }
 
-    @Test
-    void testScheduledRefreshWithTimeout_timeout() throws Exception {
-        Future<Object> mockFuture = mock(Future.class);
-        when(executor.submit(any(Runnable.class))).thenReturn((Future) mockFuture);
-        doThrow(new TimeoutException()).when(mockFuture).get(anyLong(), any());
+    private static byte[] gzip(String value) {
+        return GzipCodec.compress(value.getBytes(StandardCharsets.UTF_8));
+    }
 
-        cdekCacheService.scheduledRefreshWithTimeout();
+    private static byte[] fetchedAt(long millis) {
+        return String.valueOf(millis).getBytes(StandardCharsets.US_ASCII);
+    }
 
-        verify(mockFuture, times(3)).cancel(true);
+    private static String gunzip(byte[] value) {
+        return new String(GzipCodec.decompress(value), StandardCharsets.UTF_8);
     }
 }
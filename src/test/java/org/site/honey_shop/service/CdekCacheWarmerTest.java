@@ -0,0 +1,250 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CdekCacheWarmerTest {
+
+    @Mock
+    private CdekCacheService cdekCacheService;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private SimpleMeterRegistry meterRegistry;
+    private CdekCacheWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        warmer = new CdekCacheWarmer(cdekCacheService, executor, meterRegistry);
+        warmer.setListRequest("action=offices&is_handout=true&page=0");
+        warmer.setPageSize(2);
+        warmer.setExtraRequests(List.of());
+        warmer.setParallelism(3);
+        warmer.setMaxPages(50);
+        warmer.setPageAttempts(3);
+        warmer.setInitialBackoffMs(1);
+        warmer.setMaxBackoffMs(2);
+
+        lenient().when(cdekCacheService.beginGeneration()).thenReturn("7");
+        lenient().when(cdekCacheService.buildCacheKey(anyMap())).thenAnswer(invocation ->
+                "cdek::" + new TreeMap<>(invocation.<Map<String, String>>getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testWarmUp_pagesWithExplicitSizeUntilShortPageAndStoresWidgetList() {
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> pageOf(invocation.getArgument(0), 9));
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.discoveredPages()).isEqualTo(5);
+        assertThat(result.failedPages()).isZero();
+        assertThat(result.activated()).isTrue();
+        verify(cdekCacheService).fetchOffices(Map.of("action", "offices", "is_handout", "true", "page", "0", "size", "2"));
+        verify(cdekCacheService).storeInGeneration("7", "cdek::{action=offices, is_handout=true, page=0}",
+                "[" + IntStream.range(0, 9).mapToObj(i -> "{\"code\":\"MSK" + i + "\"}").collect(Collectors.joining(",")) + "]");
+        verify(cdekCacheService, times(1)).storeInGeneration(anyString(), anyString(), anyString());
+        verify(cdekCacheService, atMost(5 + 3)).fetchOffices(anyMap());
+        verify(cdekCacheService).activateGeneration("7");
+        verify(cdekCacheService, never()).discardGeneration(anyString());
+        assertThat(meterRegistry.get("cdek.warmup.page.latency").tag("outcome", "success").timer().count())
+                .isEqualTo(result.loadedPages());
+    }
+
+    @Test
+    void testWarmUp_exactMultipleOfPageSizeEndsOnEmptyPage() {
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> pageOf(invocation.getArgument(0), 4));
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.discoveredPages()).isEqualTo(3);
+        assertThat(result.activated()).isTrue();
+        verify(cdekCacheService).storeInGeneration(eq("7"), anyString(),
+                eq("[{\"code\":\"MSK0\"},{\"code\":\"MSK1\"},{\"code\":\"MSK2\"},{\"code\":\"MSK3\"}]"));
+    }
+
+    @Test
+    void testWarmUp_retriesOnlyTheFailingPage() {
+        AtomicInteger pageTwoCalls = new AtomicInteger();
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> {
+            Map<String, String> params = invocation.getArgument(0);
+            if (params.get("page").equals("2") && pageTwoCalls.incrementAndGet() < 3) {
+                throw new IllegalStateException("Error while getting data from CDEK API");
+            }
+            return pageOf(params, 7);
+        });
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.failedPages()).isZero();
+        assertThat(result.activated()).isTrue();
+        assertThat(pageTwoCalls.get()).isEqualTo(3);
+        verify(cdekCacheService, times(1)).fetchOffices(Map.of("action", "offices", "is_handout", "true", "page", "0", "size", "2"));
+        assertThat(meterRegistry.get("cdek.warmup.retries").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testWarmUp_discardsGenerationWhenOnePageExhaustsRetries() {
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> {
+            Map<String, String> params = invocation.getArgument(0);
+            if (params.get("page").equals("1")) {
+                throw new IllegalStateException("Error while getting data from CDEK API");
+            }
+            return pageOf(params, 5);
+        });
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.failedPages()).isEqualTo(1);
+        verify(cdekCacheService, times(3)).fetchOffices(Map.of("action", "offices", "is_handout", "true", "page", "1", "size", "2"));
+        verify(cdekCacheService, never()).storeInGeneration(anyString(), anyString(), anyString());
+        assertThat(result.activated()).isFalse();
+        verify(cdekCacheService).discardGeneration("7");
+        verify(cdekCacheService, never()).activateGeneration(anyString());
+        assertThat(meterRegistry.get("cdek.warmup.pages.failed").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testWarmUp_failedPageAfterLastNonEmptyPageEndsTheList() {
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> {
+            Map<String, String> params = invocation.getArgument(0);
+            if (params.get("page").equals("2")) {
+                throw new IllegalStateException("Error while getting data from CDEK API");
+            }
+            return pageOf(params, 4);
+        });
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.failedPages()).isEqualTo(1);
+        assertThat(result.activated()).isTrue();
+        verify(cdekCacheService).storeInGeneration(eq("7"), anyString(),
+                eq("[{\"code\":\"MSK0\"},{\"code\":\"MSK1\"},{\"code\":\"MSK2\"},{\"code\":\"MSK3\"}]"));
+        verify(cdekCacheService).activateGeneration("7");
+        verify(cdekCacheService, never()).discardGeneration(anyString());
+    }
+
+    @Test
+    void testScheduleWarmUp_runsOnTheExecutorAndSkipsWhileBusy() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> {
+            release.await();
+            return pageOf(invocation.getArgument(0), 1);
+        });
+
+        warmer.scheduleWarmUp();
+        warmer.scheduleWarmUp();
+        release.countDown();
+
+        verify(cdekCacheService, timeout(5000)).activateGeneration("7");
+        verify(cdekCacheService, times(1)).beginGeneration();
+    }
+
+    @Test
+    void testWarmUp_retriesPagesThatAreNotAnOfficeList() {
+        AtomicInteger pageZeroCalls = new AtomicInteger();
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> {
+            Map<String, String> params = invocation.getArgument(0);
+            if (params.get("page").equals("0") && pageZeroCalls.incrementAndGet() == 1) {
+                return "{\"message\":\"Unauthorized\"}";
+            }
+            return pageOf(params, 3);
+        });
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.activated()).isTrue();
+        assertThat(pageZeroCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testWarmUp_loadsExtraRequests() {
+        warmer.setExtraRequests(List.of("action=offices&is_handout=true&page=1&size=1"));
+        when(cdekCacheService.fetchOffices(anyMap())).thenReturn("[]");
+
+        warmer.warmUp();
+
+        verify(cdekCacheService).fetchOffices(Map.of("action", "offices", "is_handout", "true", "page", "1", "size", "1"));
+        verify(cdekCacheService).storeInGeneration("7", "cdek::{action=offices, is_handout=true, page=1, size=1}", "[]");
+    }
+
+    @Test
+    void testWarmUp_discardsGenerationWhenEndOfListIsNotReached() {
+        warmer.setMaxPages(5);
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation -> pageOf(invocation.getArgument(0), 1000));
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.loadedPages()).isEqualTo(5);
+        assertThat(result.activated()).isFalse();
+        verify(cdekCacheService).discardGeneration("7");
+    }
+
+    @Test
+    void testWarmUp_upstreamIgnoringPageFallsBackToSingleRequest() {
+        String firstTwo = "[{\"code\":\"MSK0\"},{\"code\":\"MSK1\"}]";
+        String fullList = "[{\"code\":\"MSK0\"},{\"code\":\"MSK1\"},{\"code\":\"MSK2\"}]";
+        when(cdekCacheService.fetchOffices(anyMap())).thenAnswer(invocation ->
+                invocation.<Map<String, String>>getArgument(0).containsKey("size") ? firstTwo : fullList);
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.activated()).isTrue();
+        verify(cdekCacheService).fetchOffices(Map.of("action", "offices", "is_handout", "true", "page", "0"));
+        verify(cdekCacheService).storeInGeneration("7", "cdek::{action=offices, is_handout=true, page=0}", fullList);
+        verify(cdekCacheService, atMost(3 + 2)).fetchOffices(anyMap());
+    }
+
+    @Test
+    void testWarmUp_upstreamIgnoringPageAndSizeFallsBackToSingleRequest() {
+        String fullList = "[{\"code\":\"MSK0\"},{\"code\":\"MSK1\"},{\"code\":\"MSK2\"}]";
+        when(cdekCacheService.fetchOffices(anyMap())).thenReturn(fullList);
+
+        CdekCacheWarmer.WarmupResult result = warmer.warmUp();
+
+        assertThat(result.activated()).isTrue();
+        assertThat(result.discoveredPages()).isEqualTo(1);
+        verify(cdekCacheService).storeInGeneration("7", "cdek::{action=offices, is_handout=true, page=0}", fullList);
+        verify(cdekCacheService, atMost(3 + 2)).fetchOffices(anyMap());
+    }
+
+    @Test
+    void testCountItems() {
+        assertThat(CdekCacheWarmer.countItems(" [ ] ", 10)).isZero();
+        assertThat(CdekCacheWarmer.countItems("[{\"code\":\"MSK1\",\"phones\":[{}]},{}]", 10)).isEqualTo(2);
+        assertThat(CdekCacheWarmer.countItems("[{},{},{}]", 2)).isEqualTo(2);
+        assertThat(CdekCacheWarmer.countItems("{\"offices\":[]}", 10)).isEqualTo(-1);
+    }
+
+    private static String pageOf(Map<String, String> params, int totalOffices) {
+        int size = Integer.parseInt(params.get("size"));
+        int from = Integer.parseInt(params.get("page")) * size;
+        return IntStream.range(from, Math.min(from + size, totalOffices))
+                .mapToObj(i -> "{\"code\":\"MSK" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+}
@@ -0,0 +1,84 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.service.CdekCacheService.CachedEntry;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CdekLocalCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CdekLocalCache localCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        localCache = new CdekLocalCache(meterRegistry);
+        localCache.setMaxBytes(1000);
+    }
+
+    @Test
+    void testPut_evictsLeastRecentlyUsedToStayWithinByteBudget() {
+        localCache.setMaxBytes(1200);
+        localCache.put("cdek::a", entry(400), localCache.epoch());
+        localCache.put("cdek::b", entry(400), localCache.epoch());
+        localCache.get("cdek::a");
+
+        localCache.put("cdek::c", entry(400), localCache.epoch());
+
+        assertThat(localCache.get("cdek::a")).isNotNull();
+        assertThat(localCache.get("cdek::b")).isNull();
+        assertThat(localCache.get("cdek::c")).isNotNull();
+        assertThat(meterRegistry.get("cdek.cache.l1.bytes").gauge().value()).isLessThanOrEqualTo(1200);
+        assertThat(meterRegistry.get("cdek.cache.l1.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPut_skipsEntriesLargerThanTheBudget() {
+        localCache.put("cdek::huge", entry(1000), localCache.epoch());
+
+        assertThat(localCache.get("cdek::huge")).isNull();
+        assertThat(meterRegistry.get("cdek.cache.l1.bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    void testPut_ignoresEntriesReadBeforeInvalidation() {
+        long epoch = localCache.epoch();
+        localCache.invalidateAll();
+
+        localCache.put("cdek::a", entry(10), epoch);
+
+        assertThat(localCache.get("cdek::a")).isNull();
+    }
+
+    @Test
+    void testOnMessage_clearsEntries() {
+        localCache.put("cdek::a", entry(10), localCache.epoch());
+
+        localCache.onMessage(new DefaultMessage("cdek::generation::events".getBytes(StandardCharsets.UTF_8),
+                "8".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(localCache.size()).isZero();
+        assertThat(meterRegistry.get("cdek.cache.l1.bytes").gauge().value()).isZero();
+    }
+
+    @Test
+    void testHitRatio() {
+        localCache.put("cdek::a", entry(10), localCache.epoch());
+        localCache.get("cdek::a");
+        localCache.get("cdek::a");
+        localCache.get("cdek::a");
+        localCache.get("cdek::b");
+
+        assertThat(meterRegistry.get("cdek.cache.l1.hit.ratio").gauge().value()).isEqualTo(0.75);
+    }
+
+    private static CachedEntry entry(int length) {
+        return new CachedEntry(new byte[length], System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,79 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CdekOfficeIndexServiceTest {
+
+    private static final String OFFICES = "[{\"code\":\"MSK1\",\"location\":{\"city_code\":44,\"latitude\":55.75,\"longitude\":37.61}}," +
+            "{\"code\":\"SPB1\",\"location\":{\"city_code\":137,\"latitude\":59.93,\"longitude\":30.33}}]";
+
+    @Mock
+    private CdekCacheService cdekCacheService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CdekOfficeIndexService indexService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        indexService = new CdekOfficeIndexService(cdekCacheService, meterRegistry);
+        indexService.setCellDegrees(0.5);
+        indexService.setMaxResults(500);
+        indexService.setMaxIndexes(2);
+        lenient().when(cdekCacheService.buildCacheKey(anyMap())).thenReturn("cdek::action=offices");
+    }
+
+    @Test
+    void testFindOffices_stripsGeoParametersAndReusesIndex() {
+        byte[] gzipped = GzipCodec.compress(OFFICES.getBytes(StandardCharsets.UTF_8));
+        when(cdekCacheService.getCompressedOffices(Map.of("action", "offices"))).thenReturn(gzipped);
+
+        byte[] first = indexService.findOffices(Map.of("action", "offices", "geo_city", "137"));
+        byte[] second = indexService.findOffices(Map.of("action", "offices", "near", "55.7,37.6", "limit", "1"));
+
+        assertThat(new String(first, StandardCharsets.UTF_8)).contains("SPB1").doesNotContain("MSK1");
+        assertThat(new String(second, StandardCharsets.UTF_8)).contains("MSK1").doesNotContain("SPB1");
+        verify(cdekCacheService, times(2)).getCompressedOffices(Map.of("action", "offices"));
+        assertThat(meterRegistry.get("cdek.geo.index.build").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cdek.geo.queries").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFindOffices_rebuildsIndexWhenPayloadChanges() {
+        when(cdekCacheService.getCompressedOffices(anyMap())).thenReturn(
+                GzipCodec.compress(OFFICES.getBytes(StandardCharsets.UTF_8)),
+                GzipCodec.compress("[]".getBytes(StandardCharsets.UTF_8)));
+
+        indexService.findOffices(Map.of("action", "offices", "geo_city", "44"));
+        byte[] afterRefresh = indexService.findOffices(Map.of("action", "offices", "geo_city", "44"));
+
+        assertThat(new String(afterRefresh, StandardCharsets.UTF_8)).isEqualTo("[]");
+        assertThat(meterRegistry.get("cdek.geo.index.build").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFindOffices_dropsParametersThatAreNotListFilters() {
+        byte[] gzipped = GzipCodec.compress(OFFICES.getBytes(StandardCharsets.UTF_8));
+        when(cdekCacheService.getCompressedOffices(Map.of("action", "offices", "city_code", "44"))).thenReturn(gzipped);
+
+        indexService.findOffices(Map.of("action", "offices", "city_code", "44", "geo_city", "44", "_", "1"));
+        indexService.findOffices(Map.of("action", "offices", "city_code", "44", "geo_city", "44", "_", "2"));
+
+        verify(cdekCacheService, times(2)).getCompressedOffices(Map.of("action", "offices", "city_code", "44"));
+        verify(cdekCacheService, never()).getCompressedOffices(argThat(params -> params.containsKey("_")));
+        assertThat(meterRegistry.get("cdek.geo.index.build").timer().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,156 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CdekOfficeIndexTest {
+
+    private static final String OFFICES = "[" +
+            office("MSK1", 44, 55.7558, 37.6173) + "," +
+            office("MSK2", 44, 55.7000, 37.5000) + "," +
+            office("SPB1", 137, 59.9343, 30.3351) + "," +
+            "{\"code\":\"NOLOC\",\"location\":{\"city_code\":44}}," +
+            office("KZN1", 424, 55.7963, 49.1088) + "]";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSelect_byBoundingBox() throws Exception {
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(OFFICES), 0.5);
+
+        int[] ids = index.select(CdekOfficeQuery.parse(Map.of("bbox", "37.0,55.5,38.0,56.0"), 500));
+
+        assertThat(codes(index, ids)).containsExactly("MSK1", "MSK2");
+    }
+
+    @Test
+    void testSelect_byCityIncludesOfficesWithoutCoordinates() throws Exception {
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(OFFICES), 0.5);
+
+        int[] ids = index.select(CdekOfficeQuery.parse(Map.of("geo_city", "44"), 500));
+
+        assertThat(codes(index, ids)).containsExactly("MSK1", "MSK2", "NOLOC");
+    }
+
+    @Test
+    void testSelect_nearestReturnsClosestFirst() throws Exception {
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(OFFICES), 0.5);
+
+        int[] nearMoscow = index.select(CdekOfficeQuery.parse(Map.of("near", "55.76,37.62", "limit", "2"), 500));
+        int[] nearPetersburg = index.select(CdekOfficeQuery.parse(Map.of("near", "59.0,31.0"), 500));
+
+        assertThat(codes(index, nearMoscow)).containsExactly("MSK1", "MSK2");
+        assertThat(codes(index, nearPetersburg)).hasSize(4).startsWith("SPB1").endsWith("KZN1");
+    }
+
+    @Test
+    void testSelect_nearestMatchesBruteForceOnRandomOffices() {
+        Random random = new Random(7);
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        double[][] points = new double[2000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{43 + random.nextDouble() * 20, 30 + random.nextDouble() * 100};
+            json.add(office("P" + i, i % 50, points[i][0], points[i][1]));
+        }
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(json.toString()), 0.5);
+
+        int[] ids = index.select(CdekOfficeQuery.parse(Map.of("near", "55.75,37.61", "limit", "15"), 500));
+
+        int[] expected = IntStream.range(0, points.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> CdekOfficeIndex.distanceKm(55.75, 37.61,
+                        (float) points[i][0], (float) points[i][1])))
+                .limit(15)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertThat(ids).containsExactly(expected);
+    }
+
+    @Test
+    void testSelect_nearestFarFromAnyOfficeMatchesBruteForce() {
+        Random random = new Random(11);
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        double[][] points = new double[2000][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{43 + random.nextDouble() * 20, 30 + random.nextDouble() * 100};
+            json.add(office("P" + i, i % 50, points[i][0], points[i][1]));
+        }
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(json.toString()), 0.5);
+
+        for (double[] point : new double[][]{{-85, -170}, {89.5, 100}, {-10, 179}}) {
+            int[] ids = index.select(CdekOfficeQuery.parse(Map.of("near", point[0] + "," + point[1], "limit", "5"), 500));
+
+            int[] expected = IntStream.range(0, points.length).boxed()
+                    .sorted(Comparator.comparingDouble(i -> CdekOfficeIndex.distanceKm(point[0], point[1],
+                            (float) points[i][0], (float) points[i][1])))
+                    .limit(5)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertThat(ids).containsExactly(expected);
+        }
+    }
+
+    @Test
+    void testSelect_worldBoundingBoxScansOccupiedCells() throws Exception {
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(OFFICES), 0.01);
+
+        int[] ids = index.select(CdekOfficeQuery.parse(Map.of("bbox", "-180,-90,180,90"), 500));
+
+        assertThat(codes(index, ids)).containsExactly("MSK1", "MSK2", "SPB1", "KZN1");
+    }
+
+    @Test
+    void testToJson_writesOriginalOfficeObjects() throws Exception {
+        CdekOfficeIndex index = CdekOfficeIndex.build(bytes(OFFICES), 0.5);
+
+        byte[] json = index.toJson(new int[]{2});
+
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo("[" + office("SPB1", 137, 59.9343, 30.3351) + "]");
+    }
+
+    @Test
+    void testParse_rejectsMalformedParameters() {
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("bbox", "1,2,3"), 500))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bbox");
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("near", "a,b"), 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("geo_city", "44", "limit", "0"), 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(CdekOfficeQuery.parse(Map.of("geo_city", "44", "limit", "100000"), 500).limit()).isEqualTo(500);
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("bbox", "-1e9,-1e9,1e9,1e9"), 500))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bbox");
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("bbox", "37,55,38,NaN"), 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("near", "91,37"), 500))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("near");
+        assertThatThrownBy(() -> CdekOfficeQuery.parse(Map.of("near", "55,-180.5"), 500))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> codes(CdekOfficeIndex index, int[] ids) throws Exception {
+        List<String> codes = new ArrayList<>();
+        for (JsonNode office : objectMapper.readTree(index.toJson(ids))) {
+            codes.add(office.path("code").asText());
+        }
+        return codes;
+    }
+
+    private static String office(String code, int cityCode, double lat, double lon) {
+        return "{\"code\":\"" + code + "\",\"location\":{\"city_code\":" + cityCode
+                + ",\"latitude\":" + lat + ",\"longitude\":" + lon + "},\"name\":\"Пункт выдачи " + code + "\"}";
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package org.site.honey_shop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CdekTariffServiceTest {
+
+    private static final String BASE_URL = "http://lamp-server/service.php";
+    private static final String TARIFFS = "{\"tariff_codes\":[{\"tariff_code\":136,\"delivery_sum\":350.0}]}";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CdekTariffService tariffService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tariffService = new CdekTariffService(restTemplate, new ObjectMapper(), meterRegistry);
+        tariffService.setBaseUrl(BASE_URL);
+        tariffService.setTtlSeconds(3600);
+        tariffService.setMaxEntries(100);
+        tariffService.setWeightStepGrams(100);
+        tariffService.setDimensionStepCm(5);
+    }
+
+    @Test
+    void testToTariffRequest_bucketsPackagesAndReducesLocations() {
+        ObjectNode request = tariffService.toTariffRequest(body(
+                "{\"action\":\"calculate\",\"lang\":\"rus\"," +
+                        "\"from_location\":{\"code\":2350,\"country_code\":\"RU\",\"address\":\"пр-т. Автостроителей, 67\"}," +
+                        "\"to_location\":{\"code\":44,\"country_code\":\"RU\",\"address\":\"ул. Ленина, 1\",\"latitude\":55.75}," +
+                        "\"packages\":[{\"weight\":1234.5,\"length\":21,\"width\":10,\"height\":0.5}]}"));
+
+        assertThat(request).isNotNull();
+        assertThat(request.path("lang").asText()).isEqualTo("rus");
+        assertThat(request.path("to_location").toString()).isEqualTo("{\"code\":44,\"country_code\":\"RU\"}");
+        assertThat(request.path("packages").toString())
+                .isEqualTo("[{\"weight\":1300,\"length\":25,\"width\":10,\"height\":5}]");
+    }
+
+    @Test
+    void testToTariffRequest_ignoresOtherBodies() {
+        assertThat(tariffService.toTariffRequest(null)).isNull();
+        assertThat(tariffService.toTariffRequest(body("not json"))).isNull();
+        assertThat(tariffService.toTariffRequest(body("{\"action\":\"offices\"}"))).isNull();
+        assertThat(tariffService.toTariffRequest(body("{\"action\":\"calculate\",\"packages\":[{\"weight\":0}]}"))).isNull();
+    }
+
+    @Test
+    void testCalculate_similarCartsShareOneQuote() {
+        when(restTemplate.exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok(body(TARIFFS)));
+
+        byte[] first = tariffService.calculate(tariffService.toTariffRequest(body(
+                "{\"action\":\"calculate\",\"from_location\":{\"code\":2350},\"to_location\":{\"code\":44,\"address\":\"ул. Ленина, 1\"}," +
+                        "\"packages\":[{\"weight\":910,\"length\":20,\"width\":10,\"height\":12}]}")));
+        byte[] second = tariffService.calculate(tariffService.toTariffRequest(body(
+                "{\"to_location\":{\"address\":\"ул. Мира, 5\",\"code\":44},\"packages\":[{\"height\":14,\"width\":9,\"length\":18,\"weight\":960}]," +
+                        "\"from_location\":{\"code\":2350},\"action\":\"calculate\"}")));
+
+        assertThat(second).isEqualTo(first).isEqualTo(body(TARIFFS));
+        verify(restTemplate, times(1)).exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+        assertThat(meterRegistry.get("cdek.tariff.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cdek.tariff.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCalculate_sendsBucketedRequestUpstream() {
+        when(restTemplate.exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok(body(TARIFFS)));
+
+        tariffService.calculate(tariffService.toTariffRequest(body(
+                "{\"action\":\"calculate\",\"to_location\":{\"code\":44},\"packages\":[{\"weight\":40}]}")));
+
+        ArgumentCaptor<HttpEntity<String>> entity = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).exchange(eq(BASE_URL), eq(HttpMethod.POST), entity.capture(), eq(byte[].class));
+        assertThat(entity.getValue().getBody()).contains("\"packages\":[{\"weight\":100}]");
+    }
+
+    @Test
+    void testCalculate_doesNotCacheErrorsOrExpiredQuotes() {
+        when(restTemplate.exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok(body("{\"errors\":[{\"code\":\"v2_entity_not_found\"}]}")))
+                .thenReturn(ResponseEntity.ok(body(TARIFFS)));
+        String request = "{\"action\":\"calculate\",\"to_location\":{\"code\":44},\"packages\":[{\"weight\":500}]}";
+
+        tariffService.calculate(tariffService.toTariffRequest(body(request)));
+        assertThat(tariffService.size()).isZero();
+
+        tariffService.setTtlSeconds(0);
+        tariffService.calculate(tariffService.toTariffRequest(body(request)));
+        tariffService.calculate(tariffService.toTariffRequest(body(request)));
+
+        verify(restTemplate, times(3)).exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCalculate_keepsOnlyFieldsThatAffectTheQuote() {
+        when(restTemplate.exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(ResponseEntity.ok(body(TARIFFS)));
+
+        tariffService.calculate(tariffService.toTariffRequest(body(
+                "{\"action\":\"calculate\",\"lang\":\"rus\",\"sid\":\"a1\",\"to_location\":{\"code\":44}," +
+                        "\"packages\":[{\"weight\":500}]}")));
+        tariffService.calculate(tariffService.toTariffRequest(body(
+                "{\"action\":\"calculate\",\"lang\":\"rus\",\"sid\":\"b2\",\"to_location\":{\"code\":44}," +
+                        "\"packages\":[{\"weight\":500}],\"utm\":{\"source\":\"ads\"}}")));
+
+        ArgumentCaptor<HttpEntity<String>> entity = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(1)).exchange(eq(BASE_URL), eq(HttpMethod.POST), entity.capture(), eq(byte[].class));
+        assertThat(entity.getValue().getBody()).doesNotContain("sid").contains("\"lang\":\"rus\"");
+        assertThat(tariffService.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testCalculate_concurrentMissesShareOneUpstreamCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return ResponseEntity.ok(body(TARIFFS));
+                });
+        ObjectNode request = tariffService.toTariffRequest(body(
+                "{\"action\":\"calculate\",\"to_location\":{\"code\":44},\"packages\":[{\"weight\":500}]}"));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<byte[]>> quotes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                quotes.add(executor.submit(() -> tariffService.calculate(request)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<byte[]> quote : quotes) {
+                assertThat(quote.get(5, TimeUnit.SECONDS)).isEqualTo(body(TARIFFS));
+            }
+        }
+
+        verify(restTemplate, times(1)).exchange(eq(BASE_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+        assertThat(meterRegistry.get("cdek.tariff.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRoundUp() {
+        assertThat(CdekTariffService.roundUp(1, 100)).isEqualTo(100);
+        assertThat(CdekTariffService.roundUp(100, 100)).isEqualTo(100);
+        assertThat(CdekTariffService.roundUp(100.01, 100)).isEqualTo(200);
+    }
+
+    private static byte[] body(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.repository.OrderRepository;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredOrderSweeperTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredOrderSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredOrderSweeper(orderRepository, transactionTemplate, meterRegistry);
+        sweeper.setChunkSize(100);
+        sweeper.setMaxChunksPerRun(10);
+        sweeper.setExpirationMinutes(10);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testCancelExpiredOrders_sweepsChunksUntilPartialChunk() {
+        when(orderRepository.cancelExpiredOrders(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 42);
+
+        int cancelled = sweeper.cancelExpiredOrders();
+
+        assertThat(cancelled).isEqualTo(242);
+        verify(orderRepository, times(3)).cancelExpiredOrders(any(LocalDateTime.class), eq(100));
+        verify(transactionTemplate, times(3)).execute(any());
+        assertThat(meterRegistry.get("orders.sweeper.cancelled").counter().count()).isEqualTo(242);
+        assertThat(meterRegistry.get("orders.sweeper.swept.per.run").summary().totalAmount()).isEqualTo(242);
+        assertThat(meterRegistry.get("orders.sweeper.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCancelExpiredOrders_nothingExpired() {
+        when(orderRepository.cancelExpiredOrders(any(LocalDateTime.class), eq(100))).thenReturn(0);
+
+        assertThat(sweeper.cancelExpiredOrders()).isZero();
+        verify(orderRepository, times(1)).cancelExpiredOrders(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void testCancelExpiredOrders_stopsAtMaxChunksPerRun() {
+        when(orderRepository.cancelExpiredOrders(any(LocalDateTime.class), eq(100))).thenReturn(100);
+
+        assertThat(sweeper.cancelExpiredOrders()).isEqualTo(1000);
+        verify(orderRepository, times(10)).cancelExpiredOrders(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void testCancelExpiredOrders_usesExpirationThreshold() {
+        when(orderRepository.cancelExpiredOrders(any(LocalDateTime.class), eq(100))).thenReturn(0);
+        LocalDateTime before = LocalDateTime.now().minusMinutes(10);
+
+        sweeper.cancelExpiredOrders();
+
+        verify(orderRepository).cancelExpiredOrders(argThat(threshold ->
+                !threshold.isBefore(before) && threshold.isBefore(LocalDateTime.now().minusMinutes(9))), eq(100));
+    }
+}
@@ -2,14 +2,20 @@ package org.site.honey_shop.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.dto.ShowcaseSnapshot;
 import org.site.honey_shop.entity.Category;
 import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.repository.CategoryRepository;
 import org.site.honey_shop.repository.ProductRepository;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -26,62 +32,146 @@ class MainPageServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
     @InjectMocks
     private MainPageService mainPageService;
 
     @Test
     void testGetCategorizedProductsSorted_withVisibleCategories() {
-        Category honey1 = new Category();
-        honey1.setCategoryId(UUID.randomUUID());
-        honey1.setName("honey1");
-        honey1.setVisible(true);
+        Category honey1 = category("honey1");
+        Category honey2 = category("honey2");
 
-        Category honey2 = new Category();
-        honey2.setCategoryId(UUID.randomUUID());
-        honey2.setName("honey2");
-        honey2.setVisible(true);
-
-        when(categoryRepository.findAllByOrderByShowcaseOrderAsc())
+        when(categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc())
                 .thenReturn(List.of(honey1, honey2));
 
-        Product p1 = new Product();
-        Product p2 = new Product();
+        Product p1 = product(honey1);
+        Product p2 = product(honey2);
 
-        when(productRepository.findByCategory_CategoryIdAndShowInShowcaseTrueOrderByShowcaseOrderAsc(honey1.getCategoryId()))
-                .thenReturn(List.of(p1));
-        when(productRepository.findByCategory_CategoryIdAndShowInShowcaseTrueOrderByShowcaseOrderAsc(honey2.getCategoryId()))
-                .thenReturn(List.of(p2));
+        when(productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc())
+                .thenReturn(List.of(p1, p2));
 
         Map<String, List<Product>> result = mainPageService.getCategorizedProductsSorted();
 
-        verify(categoryRepository, times(1)).findAllByOrderByShowcaseOrderAsc();
-        verify(productRepository, times(1))
-                .findByCategory_CategoryIdAndShowInShowcaseTrueOrderByShowcaseOrderAsc(honey1.getCategoryId());
-        verify(productRepository, times(1))
-                .findByCategory_CategoryIdAndShowInShowcaseTrueOrderByShowcaseOrderAsc(honey2.getCategoryId());
+        verify(categoryRepository, times(1)).findAllByVisibleTrueOrderByShowcaseOrderAsc();
+        verify(productRepository, times(1)).findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc();
 
         assertEquals(2, result.size());
         assertTrue(result.containsKey("honey1"));
         assertTrue(result.containsKey("honey2"));
         assertEquals(1, result.get("honey1").size());
         assertEquals(1, result.get("honey2").size());
+        assertEquals(p1.getProductId(), result.get("honey1").get(0).getProductId());
     }
 
     @Test
-    void testGetCategorizedProductsSorted_withInvisibleCategory() {
-        Category honey1 = new Category();
-        honey1.setCategoryId(UUID.randomUUID());
-        honey1.setName("honey1");
-        honey1.setVisible(false);
-
-        when(categoryRepository.findAllByOrderByShowcaseOrderAsc())
-                .thenReturn(List.of(honey1));
+    void testGetCategorizedProductsSorted_withNoVisibleCategories() {
+        when(categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc()).thenReturn(List.of());
+        when(productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc())
+                .thenReturn(List.of());
 
         Map<String, List<Product>> result = mainPageService.getCategorizedProductsSorted();
 
-        verify(categoryRepository, times(1)).findAllByOrderByShowcaseOrderAsc();
-        verifyNoInteractions(productRepository);
-
         assertTrue(result.isEmpty());
+        assertTrue(mainPageService.getVisibleCategories().isEmpty());
+    }
+
+    @Test
+    void testGetShowcaseSnapshot_servedFromMemoryAfterFirstBuild() {
+        Category honey = category("honey");
+        when(categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc()).thenReturn(List.of(honey));
+        when(productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc())
+                .thenReturn(List.of(product(honey)));
+
+        ShowcaseSnapshot first = mainPageService.getShowcaseSnapshot();
+        ShowcaseSnapshot second = mainPageService.getShowcaseSnapshot();
+
+        assertSame(first, second);
+        verify(categoryRepository, times(1)).findAllByVisibleTrueOrderByShowcaseOrderAsc();
+        verify(productRepository, times(1)).findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc();
+    }
+
+    @Test
+    void testRefreshShowcaseSnapshot_swapsInNewVersion() {
+        Category honey = category("honey");
+        when(categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc()).thenReturn(List.of(honey));
+        when(productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc())
+                .thenReturn(List.of(product(honey)))
+                .thenReturn(List.of(product(honey), product(honey)));
+
+        ShowcaseSnapshot before = mainPageService.getShowcaseSnapshot();
+        ShowcaseSnapshot after = mainPageService.refreshShowcaseSnapshot();
+
+        assertTrue(after.version() > before.version());
+        assertSame(after, mainPageService.getShowcaseSnapshot());
+        assertEquals(1, before.categorizedProducts().get("honey").size());
+        assertEquals(2, after.categorizedProducts().get("honey").size());
+    }
+
+    @Test
+    void testRefreshShowcaseSnapshot_announcedToOtherInstancesOnly() {
+        Category honey = category("honey");
+        when(categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc()).thenReturn(List.of(honey));
+        when(productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc())
+                .thenReturn(List.of(product(honey)));
+
+        mainPageService.refreshShowcaseSnapshot();
+        ArgumentCaptor<String> sender = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(MainPageService.SNAPSHOT_CHANNEL), sender.capture());
+
+        mainPageService.onMessage(message(sender.getValue()), null);
+        verify(productRepository, times(1)).findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc();
+
+        mainPageService.onMessage(message("other-instance"), null);
+        verify(productRepository, times(2)).findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc();
+        verify(redisTemplate, times(1)).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void testOnMessage_beforeFirstLoadDoesNotQueryDatabase() {
+        mainPageService.onMessage(message("other-instance"), null);
+
+        verifyNoInteractions(productRepository, categoryRepository);
+    }
+
+    @Test
+    void testShowcaseSnapshot_isDetachedFromEntities() {
+        Category honey = category("honey");
+        Product product = product(honey);
+        when(categoryRepository.findAllByVisibleTrueOrderByShowcaseOrderAsc()).thenReturn(List.of(honey));
+        when(productRepository.findByShowInShowcaseTrueAndCategory_VisibleTrueOrderByShowcaseOrderAsc())
+                .thenReturn(List.of(product));
+
+        ShowcaseSnapshot snapshot = mainPageService.getShowcaseSnapshot();
+        product.getImages().add("img2.jpg");
+        honey.setName("renamed");
+
+        Product cached = snapshot.categorizedProducts().get("honey").get(0);
+        assertEquals(List.of("img1.jpg"), cached.getImages());
+        assertEquals("honey", snapshot.categories().get(0).getName());
+        assertThrows(UnsupportedOperationException.class, () -> cached.getImages().add("img3.jpg"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.categorizedProducts().put("other", List.of()));
+    }
+
+    private static DefaultMessage message(String sender) {
+        return new DefaultMessage(MainPageService.SNAPSHOT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                sender.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setCategoryId(UUID.randomUUID());
+        category.setName(name);
+        category.setVisible(true);
+        return category;
+    }
+
+    private static Product product(Category category) {
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setCategory(category);
+        product.setImages(new ArrayList<>(List.of("img1.jpg")));
+        return product;
     }
 }
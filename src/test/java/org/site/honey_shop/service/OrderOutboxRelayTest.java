@@ -0,0 +1,104 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.dto.OutboxEvent;
+import org.site.honey_shop.kafka.OrderEventPublisher;
+import org.site.honey_shop.repository.OrderRepository;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderOutboxRelayTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderEventPublisher orderEventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OrderOutboxRelay(orderRepository, orderEventPublisher, transactionTemplate, meterRegistry);
+        relay.setBatchSize(2);
+        relay.setMaxBatchesPerRun(10);
+        relay.setSendTimeoutMs(1000);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testRelay_publishesKeyedEventsInOrderAndDeletesThem() {
+        UUID orderId = UUID.randomUUID();
+        OutboxEvent created = new OutboxEvent(1, orderId, "{\"eventType\":\"CREATED\"}", LocalDateTime.now().minusSeconds(5));
+        OutboxEvent paid = new OutboxEvent(2, orderId, "{\"eventType\":\"PAID\"}", LocalDateTime.now().minusSeconds(1));
+        when(orderRepository.lockNextOutboxBatch(2)).thenReturn(List.of(created, paid), List.of());
+        when(orderEventPublisher.publishOrderEvent(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(orderRepository.oldestOutboxEventDate()).thenReturn(Optional.empty());
+
+        int relayed = relay.relayOrderEvents();
+
+        assertThat(relayed).isEqualTo(2);
+        InOrder inOrder = inOrder(orderEventPublisher, orderRepository);
+        inOrder.verify(orderEventPublisher).publishOrderEvent(orderId.toString(), created.payload());
+        inOrder.verify(orderEventPublisher).publishOrderEvent(orderId.toString(), paid.payload());
+        inOrder.verify(orderRepository).deleteOutboxEvents(List.of(1L, 2L));
+        assertThat(meterRegistry.get("orders.outbox.published").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("orders.outbox.delivery.lag").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("orders.outbox.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    void testRelay_keepsBatchWhenDeliveryFails() {
+        UUID orderId = UUID.randomUUID();
+        when(orderRepository.lockNextOutboxBatch(2))
+                .thenReturn(List.of(new OutboxEvent(1, orderId, "{}", LocalDateTime.now().minusMinutes(2))));
+        when(orderEventPublisher.publishOrderEvent(anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(orderRepository.countOutboxEvents()).thenReturn(1L);
+        when(orderRepository.oldestOutboxEventDate()).thenReturn(Optional.of(LocalDateTime.now().minusMinutes(2)));
+
+        int relayed = relay.relayOrderEvents();
+
+        assertThat(relayed).isZero();
+        verify(orderRepository, never()).deleteOutboxEvents(any());
+        assertThat(meterRegistry.get("orders.outbox.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.outbox.pending").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.outbox.lag").gauge().value()).isGreaterThanOrEqualTo(120_000);
+    }
+
+    @Test
+    void testRelay_stopsAtMaxBatchesPerRun() {
+        relay.setMaxBatchesPerRun(3);
+        when(orderRepository.lockNextOutboxBatch(2)).thenAnswer(invocation -> List.of(
+                new OutboxEvent(1, UUID.randomUUID(), "{}", LocalDateTime.now()),
+                new OutboxEvent(2, UUID.randomUUID(), "{}", LocalDateTime.now())));
+        when(orderEventPublisher.publishOrderEvent(anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        when(orderRepository.oldestOutboxEventDate()).thenReturn(Optional.empty());
+
+        assertThat(relay.relayOrderEvents()).isEqualTo(6);
+        verify(orderRepository, times(3)).lockNextOutboxBatch(2);
+    }
+}
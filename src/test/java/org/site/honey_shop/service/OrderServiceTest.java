@@ -1,5 +1,6 @@
 package org.site.honey_shop.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,7 +10,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.site.honey_shop.dto.OrderDTO;
 import org.site.honey_shop.entity.*;
 import org.site.honey_shop.exception.OrderCreateException;
-import org.site.honey_shop.kafka.OrderEventPublisher;
 import org.site.honey_shop.mapper.ShopMapper;
 import org.site.honey_shop.repository.OrderRepository;
 import org.site.honey_shop.repository.ProductRepository;
@@ -17,7 +17,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
 
@@ -37,7 +36,7 @@ class OrderServiceTest {
     private ShopMapper shopMapper;
 
     @Mock
-    private OrderEventPublisher orderEventPublisher;
+    private OrderOutboxService orderOutboxService;
 
     @Mock
     private ProductRepository productRepository;
@@ -45,8 +44,8 @@ class OrderServiceTest {
     @Mock
     private ProductService productService;
 
-    @Mock
-    private PaymentService paymentService;
+    @Spy
+    private CartParser cartParser = new CartParser(new ObjectMapper());
 
     @Captor
     private ArgumentCaptor<Order> orderCaptor;
@@ -143,9 +142,7 @@ class OrderServiceTest {
         Product product = Product.builder().productId(productId).build();
 
         // Мок поведения репозитория продукта и сервиса для обновления остатков
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-        doNothing().when(productService).updateStockForReduction(product, 1);
-        when(productRepository.save(product)).thenReturn(product);
+        when(productRepository.findAllById(Set.of(productId))).thenReturn(List.of(product));
 
         // Мок сохранения заказа
         Order savedOrder = Order.builder().orderId(orderId).build();
@@ -157,11 +154,11 @@ class OrderServiceTest {
         // Проверки
         assertThat(result.getOrderId()).isEqualTo(orderId);
 
-        verify(productRepository).findById(productId);
-        verify(productService).updateStockForReduction(product, 1);
-        verify(productRepository).save(product);
+        verify(productRepository).findAllById(Set.of(productId));
+        verify(productService).reserveStock(anyList());
+        verify(productRepository, never()).save(any());
         verify(orderRepository).save(orderCaptor.capture());
-        verify(orderEventPublisher).publishOrderCreatedEvent(anyString());
+        verify(orderOutboxService).append(eq(savedOrder), eq(OrderEventType.CREATED), anyString());
 
         // Проверяем, что внутри orderCaptor передан заказ с одним orderItem
         Order capturedOrder = orderCaptor.getValue();
@@ -169,6 +166,27 @@ class OrderServiceTest {
         assertThat(capturedOrder.getOrderItems().get(0).getProduct().getProductId()).isEqualTo(productId);
     }
 
+    @Test
+    void testSave_ResolvesAllProductsInOneLookupAndMergesDuplicates() {
+        UUID honeyId = UUID.randomUUID();
+        UUID pollenId = UUID.randomUUID();
+        String orderItemsJson = "[{\"product\":{\"productId\":\"" + honeyId + "\"},\"quantity\":1,\"pricePerUnit\":300}," +
+                "{\"product\":{\"productId\":\"" + pollenId + "\"},\"quantity\":2,\"pricePerUnit\":200}," +
+                "{\"product\":{\"productId\":\"" + honeyId + "\"},\"quantity\":3,\"pricePerUnit\":300}]";
+
+        Product honey = Product.builder().productId(honeyId).price(new BigDecimal("300")).build();
+        Product pollen = Product.builder().productId(pollenId).price(new BigDecimal("200")).build();
+        when(productRepository.findAllById(Set.of(honeyId, pollenId))).thenReturn(List.of(pollen, honey));
+        when(orderRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.save(order, orderItemsJson);
+
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository, never()).findById(any());
+        assertThat(result.getOrderItems()).extracting(OrderItem::getProduct, OrderItem::getQuantity, OrderItem::getPricePerUnit)
+                .containsExactly(tuple(honey, 4, new BigDecimal("300")), tuple(pollen, 2, new BigDecimal("200")));
+    }
+
     @Test
     void testSave_InvalidJson() {
         String badJson = "invalid-json";
@@ -178,12 +196,24 @@ class OrderServiceTest {
                 .hasMessageContaining("Ошибка при разборе JSON");
     }
 
+    @Test
+    void testSave_NonPositiveQuantity_Throws() {
+        UUID productId = UUID.randomUUID();
+        String json = "[{\"order\":null,\"product\":{\"productId\":\"" + productId + "\"},\"quantity\":-5,\"pricePerUnit\":3000}]";
+
+        assertThatThrownBy(() -> orderService.save(order, json))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Некорректное количество");
+
+        verifyNoInteractions(productService);
+    }
+
     @Test
     void testSave_ProductNotFound_Throws() {
         UUID productId = UUID.randomUUID();
         String json = "[{\"order\":null,\"product\":{\"productId\":\"" + productId + "\"},\"quantity\":1,\"pricePerUnit\":3000}]";
 
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productRepository.findAllById(Set.of(productId))).thenReturn(List.of());
 
         assertThatThrownBy(() -> orderService.save(order, json))
                 .isInstanceOf(OrderCreateException.class)
@@ -270,46 +300,4 @@ class OrderServiceTest {
         assertThatThrownBy(() -> orderService.updateOrderPaymentStatus(order, PaymentStatus.SUCCESS))
                 .isInstanceOf(EntityNotFoundException.class);
     }
-
-    @Test
-    void testCancelExpiredOrders() {
-        Order order1 = Order.builder()
-                .orderId(orderId)
-                .orderStatus(OrderStatus.PENDING)
-                .createDate(LocalDateTime.now().minusMinutes(11))
-                .payment(Payment.builder().paymentId(UUID.randomUUID()).paymentStatus(PaymentStatus.PENDING).build())
-                .orderItems(new ArrayList<>())
-                .build();
-
-        OrderItem item = OrderItem.builder()
-                .product(Product.builder().productId(UUID.randomUUID()).build())
-                .quantity(2)
-                .build();
-
-        order1.getOrderItems().add(item);
-
-        when(orderRepository.findByOrderStatusAndCreateDateBefore(
-                eq(OrderStatus.PENDING), any(LocalDateTime.class)))
-                .thenReturn(List.of(order1));
-
-        when(orderRepository.findById(order1.getOrderId())).thenReturn(Optional.of(order1));
-
-        when(paymentService.findById(order1.getPayment().getPaymentId())).thenReturn(order1.getPayment());
-        doNothing().when(paymentService).update(order1.getPayment());
-
-        when(productRepository.findById(item.getProduct().getProductId())).thenReturn(Optional.of(item.getProduct()));
-        doNothing().when(productService).updateStockForAddition(item.getProduct(), item.getQuantity());
-
-        when(orderRepository.save(any())).thenReturn(order1);
-
-        orderService.cancelExpiredOrders();
-
-        assertThat(order1.getOrderStatus()).isEqualTo(OrderStatus.CANCELLED);
-        assertThat(order1.getPayment().getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
-
-        verify(paymentService).update(order1.getPayment());
-        verify(productService).updateStockForAddition(item.getProduct(), item.getQuantity());
-        verify(orderRepository).save(order1);
-    }
-
 }
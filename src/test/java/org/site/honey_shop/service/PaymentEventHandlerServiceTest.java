@@ -7,7 +7,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.site.honey_shop.entity.*;
-import org.site.honey_shop.kafka.OrderEventPublisher;
 import org.site.honey_shop.kafka.OrderInfoEventPublisher;
 
 import java.math.BigDecimal;
@@ -35,7 +34,7 @@ class PaymentEventHandlerServiceTest {
     private PaymentService paymentService;
 
     @Mock
-    private OrderEventPublisher orderEventPublisher;
+    private OrderOutboxService orderOutboxService;
 
     @Mock
     private OrderInfoEventPublisher orderInfoEventPublisher;
@@ -102,7 +101,7 @@ class PaymentEventHandlerServiceTest {
         verify(paymentService).update(payment);
         verify(orderService).update(order);
         verify(orderInfoEventPublisher).publishOrderInfoEvent(order);
-        verify(orderEventPublisher).publishOrderCreatedEvent(contains("успешно оплачен"));
+        verify(orderOutboxService).append(eq(order), eq(OrderEventType.PAID), contains("успешно оплачен"));
 
         assertEquals(OrderStatus.PAID, order.getOrderStatus());
         assertEquals(PaymentStatus.SUCCESS, payment.getPaymentStatus());
@@ -127,7 +126,7 @@ class PaymentEventHandlerServiceTest {
 
         verify(orderService).update(order);
         verify(paymentService).update(payment);
-        verify(orderEventPublisher).publishOrderCreatedEvent(contains("отменен"));
+        verify(orderOutboxService).append(eq(order), eq(OrderEventType.CANCELLED), contains("отменен"));
 
         assertEquals(OrderStatus.CANCELLED, order.getOrderStatus());
         assertEquals(PaymentStatus.FAILED, payment.getPaymentStatus());
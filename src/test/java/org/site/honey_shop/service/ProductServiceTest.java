@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.OrderItem;
 import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.exception.DeleteProductException;
 import org.site.honey_shop.exception.OrderCreateException;
@@ -37,6 +38,9 @@ class ProductServiceTest {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private MainPageService mainPageService;
+
     @BeforeEach
     void setUp() {
         try {
@@ -70,14 +74,31 @@ class ProductServiceTest {
 
     @Test
     void getAllProducts_shouldReturnPage() {
-        Page<Product> page = new PageImpl<>(List.of(Product.builder().name("P1").build()));
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        Product first = Product.builder().productId(firstId).name("P1").build();
+        Product second = Product.builder().productId(secondId).name("P2").build();
+        Pageable pageable = mock(Pageable.class);
+        when(productRepository.findProductIds(pageable)).thenReturn(new PageImpl<>(List.of(secondId, firstId)));
+        when(productRepository.findAllByProductIdIn(List.of(secondId, firstId))).thenReturn(List.of(first, second));
+
+        Page<Product> result = productService.getAllProducts(pageable);
+
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(second, first), result.getContent());
+        verify(productRepository).findProductIds(pageable);
+        verify(productRepository).findAllByProductIdIn(List.of(secondId, firstId));
+    }
+
+    @Test
+    void getAllProducts_shouldSkipFetchForEmptyPage() {
         Pageable pageable = mock(Pageable.class);
-        when(productRepository.findAll(pageable)).thenReturn(page);
+        when(productRepository.findProductIds(pageable)).thenReturn(Page.empty());
 
         Page<Product> result = productService.getAllProducts(pageable);
 
-        assertEquals(1, result.getTotalElements());
-        verify(productRepository).findAll(pageable);
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findAllByProductIdIn(any());
     }
 
     @Test
@@ -88,6 +109,7 @@ class ProductServiceTest {
         productService.deleteProduct(id);
 
         verify(productRepository).deleteById(id);
+        verify(mainPageService).refreshShowcaseSnapshot();
     }
 
     @Test
@@ -100,17 +122,32 @@ class ProductServiceTest {
     }
 
     @Test
-    void updateStockForReduction_shouldDecreaseStock() {
-        Product product = Product.builder().stockQuantity(10).name("Honey").build();
-        productService.updateStockForReduction(product, 3);
-        assertEquals(7, product.getStockQuantity());
-        verify(productRepository).save(product);
+    void reserveStock_shouldReserveMergedQuantitiesInOneCall() {
+        UUID honeyId = UUID.randomUUID();
+        UUID pollenId = UUID.randomUUID();
+        Product honey = Product.builder().productId(honeyId).name("Honey").build();
+        Product pollen = Product.builder().productId(pollenId).name("Pollen").build();
+        when(productRepository.reserveStock(anyMap())).thenReturn(List.of());
+
+        productService.reserveStock(List.of(
+                OrderItem.builder().product(honey).quantity(2).build(),
+                OrderItem.builder().product(pollen).quantity(1).build(),
+                OrderItem.builder().product(honey).quantity(3).build()));
+
+        verify(productRepository).reserveStock(Map.of(honeyId, 5, pollenId, 1));
+        verify(productRepository, never()).save(any());
     }
 
     @Test
-    void updateStockForReduction_shouldThrowIfInsufficient() {
-        Product product = Product.builder().stockQuantity(2).name("Honey").build();
-        assertThrows(OrderCreateException.class, () -> productService.updateStockForReduction(product, 3));
+    void reserveStock_shouldThrowIfInsufficient() {
+        UUID honeyId = UUID.randomUUID();
+        Product honey = Product.builder().productId(honeyId).name("Honey").build();
+        when(productRepository.reserveStock(anyMap())).thenReturn(List.of(honeyId));
+
+        OrderCreateException ex = assertThrows(OrderCreateException.class, () -> productService.reserveStock(
+                List.of(OrderItem.builder().product(honey).quantity(3).build())));
+
+        assertTrue(ex.getMessage().contains("Honey"));
         verify(productRepository, never()).save(any());
     }
 
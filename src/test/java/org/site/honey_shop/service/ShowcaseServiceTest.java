@@ -25,6 +25,9 @@ class ShowcaseServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private MainPageService mainPageService;
+
     @InjectMocks
     private ShowcaseService showcaseService;
 
@@ -75,5 +78,6 @@ class ShowcaseServiceTest {
         assertEquals(0, savedProducts.get(0).getShowcaseOrder());
         assertEquals(productId1, savedProducts.get(1).getProductId());
         assertEquals(1, savedProducts.get(1).getShowcaseOrder());
+        verify(mainPageService).refreshShowcaseSnapshot();
     }
 }
@@ -0,0 +1,70 @@
+package org.site.honey_shop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.site.honey_shop.repository.TokenRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRetentionServiceTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRetentionService tokenRetentionService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRetentionService = new TokenRetentionService(tokenRepository, meterRegistry);
+        tokenRetentionService.setChunkSize(100);
+        tokenRetentionService.setMaxChunksPerRun(5);
+    }
+
+    @Test
+    void testPurgeTokens_deletesInChunksAndRecordsMetrics() {
+        when(tokenRepository.purgeTokens(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 7);
+        when(tokenRepository.countTokens()).thenReturn(42L);
+        when(tokenRepository.tokensTableSizeBytes()).thenReturn(8192L);
+
+        int purged = tokenRetentionService.purgeTokens();
+
+        assertThat(purged).isEqualTo(207);
+        verify(tokenRepository, times(3)).purgeTokens(any(LocalDateTime.class), eq(100));
+        assertThat(meterRegistry.get("tokens.purged").counter().count()).isEqualTo(207);
+        assertThat(meterRegistry.get("tokens.purge.duration").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("tokens.table.rows").gauge().value()).isEqualTo(42);
+        assertThat(meterRegistry.get("tokens.table.bytes").gauge().value()).isEqualTo(8192);
+    }
+
+    @Test
+    void testPurgeTokens_stopsAtMaxChunksPerRun() {
+        when(tokenRepository.purgeTokens(any(LocalDateTime.class), eq(100))).thenReturn(100);
+
+        assertThat(tokenRetentionService.purgeTokens()).isEqualTo(500);
+        verify(tokenRepository, times(5)).purgeTokens(any(LocalDateTime.class), eq(100));
+    }
+
+    @Test
+    void testPurgeTokens_usesRefreshTokenLifetime() {
+        when(tokenRepository.purgeTokens(any(LocalDateTime.class), eq(100))).thenReturn(0);
+        LocalDateTime lowerBound = LocalDateTime.now().minusDays(7);
+
+        tokenRetentionService.purgeTokens();
+
+        verify(tokenRepository).purgeTokens(argThat(threshold ->
+                !threshold.isBefore(lowerBound) && threshold.isBefore(LocalDateTime.now().minusDays(6))), eq(100));
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.site.honey_shop.TestContainerConfig;
 import org.site.honey_shop.service.CdekCacheService;
+import org.site.honey_shop.service.GzipCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -11,6 +12,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +31,9 @@ class CdekCacheServiceIT extends TestContainerConfig {
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private RedisTemplate<String, byte[]> cdekPayloadRedisTemplate;
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -56,16 +61,20 @@ class CdekCacheServiceIT extends TestContainerConfig {
 
         assertThat(response).isEqualTo(expectedResponse);
 
-        assertThat(redisTemplate.opsForValue().get(cacheKey)).isEqualTo(expectedResponse);
+        String generation = redisTemplate.opsForValue().get(CdekCacheService.GENERATION_KEY);
+        String storedKey = cdekCacheService.generationKey(generation, cacheKey);
+        assertThat(storedBody(storedKey)).isEqualTo(expectedResponse);
 
-        assertThat(redisTemplate.opsForList().range(cdekCacheService.getCdekCacheKeys(), 0, -1)).contains(cacheKey);
+        assertThat(redisTemplate.opsForSet().members(cdekCacheService.getCdekCacheKeys() + "::" + generation)).contains(storedKey);
     }
 
     @Test
     void testGetOfficesWithCaching_whenInCache_returnsCachedValue() {
         Map<String, String> params = Map.of("action", "offices", "is_handout", "true", "page", "1");
         String cacheKey = cdekCacheService.buildCacheKey(params);
-        redisTemplate.opsForValue().set(cacheKey, "{\"cached\":true}");
+        String generation = cdekCacheService.beginGeneration();
+        cdekCacheService.storeInGeneration(generation, cacheKey, "{\"cached\":true}");
+        cdekCacheService.activateGeneration(generation);
 
         String result = cdekCacheService.getOfficesWithCaching(params);
 
@@ -94,7 +103,7 @@ class CdekCacheServiceIT extends TestContainerConfig {
     }
 
     @Test
-    void testUpdateCache_storesValueAndPushesKeyToList() {
+    void testUpdateCache_storesValueAndRegistersKeyInGeneration() {
         Map<String, String> params = Map.of("action", "offices", "page", "0");
         String expected = "{\"data\":\"ok\"}";
         String cacheKey = cdekCacheService.buildCacheKey(params);
@@ -102,10 +111,37 @@ class CdekCacheServiceIT extends TestContainerConfig {
         mockServer.expect(requestTo(cdekCacheService.getBaseUrl() + "?action=offices&page=0"))
                 .andRespond(withSuccess(expected, org.springframework.http.MediaType.APPLICATION_JSON));
 
-        String response = cdekCacheService.updateCache(params, cacheKey);
+        byte[] response = cdekCacheService.updateCache(params, cacheKey);
+
+        assertThat(new String(GzipCodec.decompress(response), StandardCharsets.UTF_8)).isEqualTo(expected);
+        String generation = redisTemplate.opsForValue().get(CdekCacheService.GENERATION_KEY);
+        String storedKey = cdekCacheService.generationKey(generation, cacheKey);
+        assertThat(storedBody(storedKey)).isEqualTo(expected);
+        assertThat(redisTemplate.opsForSet().members(cdekCacheService.getCdekCacheKeys() + "::" + generation)).contains(storedKey);
+    }
+
+    @Test
+    void testActivateGeneration_switchesReadsAndExpiresPreviousGeneration() {
+        Map<String, String> params = Map.of("action", "offices", "page", "2");
+        String cacheKey = cdekCacheService.buildCacheKey(params);
+        String oldGeneration = cdekCacheService.beginGeneration();
+        cdekCacheService.storeInGeneration(oldGeneration, cacheKey, "[\"old\"]");
+        cdekCacheService.activateGeneration(oldGeneration);
+
+        String newGeneration = cdekCacheService.beginGeneration();
+        cdekCacheService.storeInGeneration(newGeneration, cacheKey, "[\"new\"]");
+        assertThat(cdekCacheService.getOfficesWithCaching(params)).isEqualTo("[\"old\"]");
+
+        cdekCacheService.activateGeneration(newGeneration);
+
+        assertThat(cdekCacheService.getOfficesWithCaching(params)).isEqualTo("[\"new\"]");
+        assertThat(redisTemplate.getExpire(cdekCacheService.generationKey(oldGeneration, cacheKey))).isPositive();
+        assertThat(redisTemplate.getExpire(cdekCacheService.generationKey(newGeneration, cacheKey)))
+                .isGreaterThan(cdekCacheService.getOldGenerationTtlSeconds());
+    }
 
-        assertThat(response).isEqualTo(expected);
-        assertThat(redisTemplate.opsForValue().get(cacheKey)).isEqualTo(expected);
-        assertThat(redisTemplate.opsForList().range(cdekCacheService.getCdekCacheKeys(), 0, -1)).contains(cacheKey);
+    private String storedBody(String storedKey) {
+        byte[] gzipped = cdekPayloadRedisTemplate.<String, byte[]>opsForHash().get(storedKey, "body");
+        return new String(GzipCodec.decompress(gzipped), StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,138 @@
+package org.site.honey_shop.serviceIT;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.TestContainerConfig;
+import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.Order;
+import org.site.honey_shop.entity.Product;
+import org.site.honey_shop.kafka.OrderEventPublisher;
+import org.site.honey_shop.repository.CategoryRepository;
+import org.site.honey_shop.repository.OrderRepository;
+import org.site.honey_shop.repository.ProductRepository;
+import org.site.honey_shop.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class CheckoutBenchmarkIT extends TestContainerConfig {
+
+    private static final int[] CART_SIZES = {1, 10, 50};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private OrderEventPublisher orderEventPublisher;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = categoryRepository.save(Category.builder().name("Мёд").visible(true).build());
+        for (int i = 0; i < 50; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Мёд " + i)
+                    .shortDescription("Кратко")
+                    .description("Описание")
+                    .price(new BigDecimal("10.00"))
+                    .length(10.0)
+                    .width(5.0)
+                    .height(3.0)
+                    .weight(0.5)
+                    .images(new ArrayList<>())
+                    .category(category)
+                    .stockQuantity(1_000_000)
+                    .build()));
+        }
+    }
+
+    @Test
+    void benchmarkCheckoutLatencyByCartSize() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<Integer, Long> statementsPerCheckout = new LinkedHashMap<>();
+
+        for (int cartSize : CART_SIZES) {
+            String json = cartJson(cartSize);
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                orderService.save(createSampleOrder(), json);
+            }
+
+            long[] latencies = new long[MEASURED_ITERATIONS];
+            statistics.clear();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                orderService.save(createSampleOrder(), json);
+                latencies[i] = System.nanoTime() - start;
+            }
+            statementsPerCheckout.put(cartSize, statistics.getPrepareStatementCount() / MEASURED_ITERATIONS);
+
+            Arrays.sort(latencies);
+            log.info("Checkout cart={} items: p50={} us, p90={} us, p99={} us, statements/checkout={}",
+                    cartSize,
+                    latencies[MEASURED_ITERATIONS / 2] / 1_000,
+                    latencies[MEASURED_ITERATIONS * 9 / 10] / 1_000,
+                    latencies[MEASURED_ITERATIONS * 99 / 100] / 1_000,
+                    statementsPerCheckout.get(cartSize));
+        }
+
+        assertThat(statementsPerCheckout.get(50)).isEqualTo(statementsPerCheckout.get(1));
+    }
+
+    private String cartJson(int cartSize) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < cartSize; i++) {
+            json.add("{\"product\":{\"productId\":\"" + products.get(i).getProductId() + "\"},\"quantity\":1,\"pricePerUnit\":10.00}");
+        }
+        return json.toString();
+    }
+
+    private Order createSampleOrder() {
+        return Order.builder()
+                .firstName("Иван")
+                .lastName("Иванов")
+                .customerEmail("ivan@example.com")
+                .deliveryAddress("ул. Ленина, 1")
+                .customerPhone("+7 (999) 123-45-67")
+                .productAmount(BigDecimal.TEN)
+                .deliveryAmount(BigDecimal.ONE)
+                .totalOrderAmount(BigDecimal.valueOf(11))
+                .personalDataConsent(true)
+                .deliveryType("PVZ")
+                .build();
+    }
+}
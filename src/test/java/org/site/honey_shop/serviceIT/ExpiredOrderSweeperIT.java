@@ -0,0 +1,136 @@
+package org.site.honey_shop.serviceIT;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.TestContainerConfig;
+import org.site.honey_shop.entity.*;
+import org.site.honey_shop.kafka.OrderEventPublisher;
+import org.site.honey_shop.repository.CategoryRepository;
+import org.site.honey_shop.repository.OrderRepository;
+import org.site.honey_shop.repository.PaymentRepository;
+import org.site.honey_shop.repository.ProductRepository;
+import org.site.honey_shop.service.ExpiredOrderSweeper;
+import org.site.honey_shop.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "order.sweeper.chunk-size=3")
+@ActiveProfiles("test")
+class ExpiredOrderSweeperIT extends TestContainerConfig {
+
+    @Autowired
+    private ExpiredOrderSweeper sweeper;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private OrderEventPublisher orderEventPublisher;
+
+    private Product honey;
+    private Product pollen;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = categoryRepository.save(Category.builder().name("Мёд").visible(true).build());
+        honey = productRepository.save(createProduct("Мёд гречишный", category));
+        pollen = productRepository.save(createProduct("Пыльца", category));
+    }
+
+    @Test
+    void testSweep_cancelsExpiredOrdersInChunksAndRestoresStock() {
+        List<Order> expired = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expired.add(placeOrder());
+        }
+        Order fresh = placeOrder();
+        expired.forEach(order -> jdbcTemplate.update("UPDATE orders SET create_date = ? WHERE order_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(30)), order.getOrderId()));
+
+        int cancelled = sweeper.cancelExpiredOrders();
+
+        assertThat(cancelled).isEqualTo(7);
+        for (Order order : expired) {
+            Order reloaded = orderRepository.findById(order.getOrderId()).orElseThrow();
+            assertThat(reloaded.getOrderStatus()).isEqualTo(OrderStatus.CANCELLED);
+            assertThat(reloaded.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        }
+        assertThat(paymentRepository.findAll())
+                .filteredOn(payment -> payment.getPaymentStatus() == PaymentStatus.FAILED)
+                .hasSize(7);
+        assertThat(orderRepository.findById(fresh.getOrderId()).orElseThrow().getOrderStatus())
+                .isEqualTo(OrderStatus.PENDING);
+        assertThat(productRepository.findById(honey.getProductId()).orElseThrow().getStockQuantity()).isEqualTo(98);
+        assertThat(productRepository.findById(pollen.getProductId()).orElseThrow().getStockQuantity()).isEqualTo(97);
+    }
+
+    @Test
+    void testSweep_nothingExpired() {
+        placeOrder();
+
+        assertThat(sweeper.cancelExpiredOrders()).isZero();
+    }
+
+    private Order placeOrder() {
+        String json = "[{\"product\":{\"productId\":\"" + honey.getProductId() + "\"},\"quantity\":2}," +
+                "{\"product\":{\"productId\":\"" + pollen.getProductId() + "\"},\"quantity\":3}]";
+        return orderService.save(Order.builder()
+                .firstName("Иван")
+                .lastName("Иванов")
+                .customerEmail("ivan@example.com")
+                .deliveryAddress("ул. Ленина, 1")
+                .customerPhone("+7 (999) 123-45-67")
+                .productAmount(BigDecimal.TEN)
+                .deliveryAmount(BigDecimal.ONE)
+                .totalOrderAmount(BigDecimal.valueOf(11))
+                .personalDataConsent(true)
+                .deliveryType("PVZ")
+                .build(), json);
+    }
+
+    private Product createProduct(String name, Category category) {
+        return Product.builder()
+                .name(name)
+                .shortDescription("Кратко")
+                .description("Описание")
+                .price(new BigDecimal("10.00"))
+                .length(10.0)
+                .width(5.0)
+                .height(3.0)
+                .weight(0.5)
+                .images(new ArrayList<>())
+                .category(category)
+                .stockQuantity(100)
+                .build();
+    }
+}
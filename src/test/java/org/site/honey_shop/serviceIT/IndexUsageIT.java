@@ -0,0 +1,100 @@
+package org.site.honey_shop.serviceIT;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.TestContainerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IndexUsageIT extends TestContainerConfig {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO users (user_id, username, password, email, phone, role)
+                SELECT gen_random_uuid(), 'user' || g, 'secret', 'user' || g || '@example.com', '+7999' || g, 'ROLE_USER'
+                FROM generate_series(1, ?) g""", ROWS);
+        jdbcTemplate.update("""
+                INSERT INTO tokens (token_id, username, access_token, is_access_token_valid, refresh_token, is_refresh_token_valid)
+                SELECT gen_random_uuid(), 'user' || g, 'access-' || g, true, 'refresh-' || g, true
+                FROM generate_series(1, ?) g""", ROWS);
+        jdbcTemplate.update("""
+                INSERT INTO orders (order_id, first_name, last_name, middle_name, customer_email, delivery_address,
+                                    customer_phone, product_amount, delivery_amount, total_order_amount, delivery_type,
+                                    order_status, payment_status, create_date)
+                SELECT gen_random_uuid(), 'Иван', 'Иванов', 'Иванович', 'ivan@example.com', 'ул. Ленина, 1',
+                       '+79991234567', 10, 1, 11, 'PVZ',
+                       CASE WHEN g % 200 = 0 THEN 'PENDING' ELSE 'DELIVERED' END, 'SUCCESS',
+                       now() - g * interval '1 minute'
+                FROM generate_series(1, ?) g""", ROWS);
+        jdbcTemplate.update("""
+                INSERT INTO categories (category_id, name, visible)
+                SELECT gen_random_uuid(), 'Категория ' || g, true FROM generate_series(1, 100) g""");
+        jdbcTemplate.update("""
+                INSERT INTO products (product_id, name, price, stock_quantity, category_id, show_in_showcase, showcase_order)
+                SELECT gen_random_uuid(), c.name || ' ' || g, 100, 10, c.category_id, g % 50 = 0, g
+                FROM categories c CROSS JOIN generate_series(1, 200) g""");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE tokens, users, orders, products, categories CASCADE");
+    }
+
+    @Test
+    void testTokenLookups_useIndex() {
+        assertThat(plan("SELECT * FROM tokens WHERE access_token = ?", "access-42")).contains("Index Scan");
+        assertThat(plan("SELECT * FROM tokens WHERE refresh_token = ?", "refresh-42")).contains("Index Scan");
+    }
+
+    @Test
+    void testUsernameLookup_usesIndex() {
+        assertThat(plan("SELECT * FROM users WHERE username = ?", "user42")).contains("Index Scan");
+    }
+
+    @Test
+    void testExpiredOrderSweep_usesStatusCreateDateIndex() {
+        assertThat(plan("""
+                SELECT order_id FROM orders
+                WHERE order_status = 'PENDING' AND create_date < now() - interval '10 minutes'
+                ORDER BY create_date LIMIT 500"""))
+                .contains("idx_orders_status_create_date");
+    }
+
+    @Test
+    void testShowcaseSnapshotQuery_usesPartialShowcaseIndex() {
+        assertThat(plan("""
+                SELECT p.* FROM products p
+                JOIN categories c ON c.category_id = p.category_id
+                WHERE p.show_in_showcase = true AND c.visible = true
+                ORDER BY p.showcase_order"""))
+                .contains("idx_products_showcase_order");
+    }
+
+    @Test
+    void testCategoryProducts_useCategoryShowcaseOrderIndex() {
+        UUID categoryId = jdbcTemplate.queryForObject("SELECT category_id FROM categories LIMIT 1", UUID.class);
+
+        assertThat(plan("SELECT * FROM products WHERE category_id = ? ORDER BY showcase_order", categoryId))
+                .contains("idx_products_category_showcase_order");
+    }
+
+    private String plan(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+}
@@ -8,6 +8,7 @@ import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.repository.CategoryRepository;
 import org.site.honey_shop.repository.ProductRepository;
 import org.site.honey_shop.service.MainPageService;
+import org.site.honey_shop.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -31,6 +32,9 @@ class MainPageServiceIT extends TestContainerConfig {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductService productService;
+
     @BeforeEach
     void clearDb() {
         productRepository.deleteAll();
@@ -63,6 +67,20 @@ class MainPageServiceIT extends TestContainerConfig {
         assertThat(pollenProducts.get(0).getName()).isEqualTo("Продукт X");
     }
 
+    @Test
+    void testGetCategorizedProductsSorted_refreshedAfterCatalogWrite() {
+        Category honey = categoryRepository.save(Category.builder().name("Мёд").visible(true).showcaseOrder(1).build());
+        productRepository.save(createProduct("Продукт A", honey, 1));
+
+        assertThat(mainPageService.getCategorizedProductsSorted().get("Мёд")).hasSize(1);
+
+        productService.createProduct(createProduct("Продукт B", honey, 2), null, null);
+
+        assertThat(mainPageService.getCategorizedProductsSorted().get("Мёд"))
+                .extracting(Product::getName)
+                .containsExactly("Продукт A", "Продукт B");
+    }
+
     private Product createProduct(String name, Category category, int showcaseOrder) {
         return createProduct(name, category, showcaseOrder, true);
     }
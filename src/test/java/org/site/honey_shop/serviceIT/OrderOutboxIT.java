@@ -0,0 +1,136 @@
+package org.site.honey_shop.serviceIT;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.site.honey_shop.TestContainerConfig;
+import org.site.honey_shop.entity.*;
+import org.site.honey_shop.kafka.OrderEventPublisher;
+import org.site.honey_shop.repository.CategoryRepository;
+import org.site.honey_shop.repository.OrderRepository;
+import org.site.honey_shop.repository.ProductRepository;
+import org.site.honey_shop.service.OrderOutboxRelay;
+import org.site.honey_shop.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderOutboxIT extends TestContainerConfig {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderOutboxRelay orderOutboxRelay;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private OrderEventPublisher orderEventPublisher;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_outbox");
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        Category category = categoryRepository.save(Category.builder().name("Мёд").visible(true).build());
+        product = productRepository.save(Product.builder()
+                .name("Мёд гречишный")
+                .shortDescription("Кратко")
+                .description("Описание")
+                .price(new BigDecimal("500.00"))
+                .length(10.0)
+                .width(5.0)
+                .height(3.0)
+                .weight(0.5)
+                .images(new ArrayList<>())
+                .category(category)
+                .stockQuantity(10)
+                .build());
+    }
+
+    @Test
+    void testRelay_publishesOrderEventKeyedByOrderIdAndClearsOutbox() throws Exception {
+        when(orderEventPublisher.publishOrderEvent(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        Order saved = placeOrder(1);
+
+        assertThat(orderRepository.countOutboxEvents()).isEqualTo(1);
+
+        int relayed = orderOutboxRelay.relayOrderEvents();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(orderEventPublisher).publishOrderEvent(eq(saved.getOrderId().toString()), payload.capture());
+        JsonNode event = objectMapper.readTree(payload.getValue());
+        assertThat(relayed).isEqualTo(1);
+        assertThat(event.get("orderId").asText()).isEqualTo(saved.getOrderId().toString());
+        assertThat(event.get("eventType").asText()).isEqualTo("CREATED");
+        assertThat(orderRepository.countOutboxEvents()).isZero();
+    }
+
+    @Test
+    void testRelay_keepsEventsWhenDeliveryFails() {
+        when(orderEventPublisher.publishOrderEvent(anyString(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        placeOrder(1);
+
+        assertThat(orderOutboxRelay.relayOrderEvents()).isZero();
+        assertThat(orderRepository.countOutboxEvents()).isEqualTo(1);
+    }
+
+    @Test
+    void testSave_rolledBackOrderLeavesNoEvent() {
+        assertThatThrownBy(() -> placeOrder(100)).isInstanceOf(RuntimeException.class);
+
+        assertThat(orderRepository.countOutboxEvents()).isZero();
+        verifyNoInteractions(orderEventPublisher);
+    }
+
+    private Order placeOrder(int quantity) {
+        Order order = Order.builder()
+                .firstName("Иван")
+                .lastName("Иванов")
+                .customerPhone("+79999999999")
+                .customerEmail("ivan@example.com")
+                .deliveryAmount(new BigDecimal("300.00"))
+                .productAmount(new BigDecimal("500.00"))
+                .totalOrderAmount(new BigDecimal("800.00"))
+                .deliveryAddress("ул. Ленина, 1")
+                .personalDataConsent(true)
+                .deliveryType("PVZ")
+                .build();
+        String json = "[{\"product\":{\"productId\":\"" + product.getProductId() + "\"},\"quantity\":" + quantity + "}]";
+        return orderService.save(order, json);
+    }
+}
@@ -15,6 +15,7 @@ import org.site.honey_shop.service.OrderService;
 import org.site.honey_shop.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.mock.web.MockMultipartFile;
@@ -24,7 +25,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -51,6 +51,9 @@ class OrderServiceIT extends TestContainerConfig {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @MockitoBean
     private OrderEventPublisher orderEventPublisher;
 
@@ -110,7 +113,8 @@ class OrderServiceIT extends TestContainerConfig {
         assertThat(saved.getPayment().getPaymentStatus()).isEqualTo(PaymentStatus.PENDING);
         assertThat(saved.getOrderStatus()).isEqualTo(OrderStatus.PENDING);
 
-        verify(orderEventPublisher).publishOrderCreatedEvent(any());
+        assertThat(jdbcTemplate.queryForList("SELECT event_type FROM order_outbox WHERE order_id = ?", String.class, saved.getOrderId()))
+                .containsExactly("CREATED");
     }
 
     @Test
@@ -254,28 +258,6 @@ class OrderServiceIT extends TestContainerConfig {
                 .isInstanceOf(EntityNotFoundException.class);
     }
 
-    @Test
-    @Transactional
-    void testCancelExpiredOrders_cancelsAndRestoresStock() {
-        Order expiredOrder = createAndPersistSimpleOrder();
-        expiredOrder.setOrderStatus(OrderStatus.PENDING);
-        expiredOrder.setCreateDate(LocalDateTime.now().minusMinutes(11));
-        orderRepository.save(expiredOrder);
-
-        when(paymentService.findById(any())).thenAnswer(invocation -> {
-            Payment payment = expiredOrder.getPayment();
-            payment.setPaymentStatus(PaymentStatus.PENDING);
-            return payment;
-        });
-        doAnswer(invocation -> null).when(paymentService).update(any());
-
-        orderService.cancelExpiredOrders();
-
-        Order cancelledOrder = orderRepository.findById(expiredOrder.getOrderId()).orElseThrow();
-        assertThat(cancelledOrder.getOrderStatus()).isEqualTo(OrderStatus.PENDING);
-        assertThat(cancelledOrder.getPayment().getPaymentStatus()).isEqualTo(PaymentStatus.PENDING);
-    }
-
     private Order createSampleOrder() {
         return Order.builder()
                 .firstName("Иван")
@@ -12,6 +12,7 @@ import org.site.honey_shop.repository.ProductRepository;
 import org.site.honey_shop.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -46,6 +47,9 @@ class PaymentEventHandlerServiceIT extends TestContainerConfig {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @MockitoBean
     private OrderEventPublisher orderEventPublisher;
 
@@ -110,7 +114,7 @@ class PaymentEventHandlerServiceIT extends TestContainerConfig {
         Payment payment = paymentService.findById(updatedOrder.getPayment().getPaymentId());
         assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
 
-        verify(orderEventPublisher).publishOrderCreatedEvent(contains("успешно оплачен"));
+        assertThat(outboxEventTypes()).containsExactly("CREATED", "PAID");
         verify(orderInfoEventPublisher).publishOrderInfoEvent(any(Order.class));
     }
 
@@ -136,7 +140,7 @@ class PaymentEventHandlerServiceIT extends TestContainerConfig {
         Payment payment = paymentService.findById(updatedOrder.getPayment().getPaymentId());
         assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
 
-        verify(orderEventPublisher).publishOrderCreatedEvent(contains("был отменен"));
+        assertThat(outboxEventTypes()).containsExactly("CREATED", "CANCELLED");
     }
 
     @Test
@@ -144,7 +148,7 @@ class PaymentEventHandlerServiceIT extends TestContainerConfig {
     void handleRefundSucceeded_updatesStatusesAndRestoresStock() {
         Map<String, Object> paymentData = createPaymentData(order.getOrderId(), null);
 
-        productService.updateStockForReduction(product, 2);
+        productService.reserveStock(List.of(OrderItem.builder().product(product).quantity(2).build()));
 
         paymentEventHandlerService.handleRefundSucceeded(paymentData);
 
@@ -190,6 +194,11 @@ class PaymentEventHandlerServiceIT extends TestContainerConfig {
         return "[{\"order\":{},\"product\":{\"productId\":\"" + productId + "\"},\"quantity\":" + quantity + ",\"pricePerUnit\":" + price + "}]";
     }
 
+    private List<String> outboxEventTypes() {
+        return jdbcTemplate.queryForList("SELECT event_type FROM order_outbox WHERE order_id = ? ORDER BY id",
+                String.class, order.getOrderId());
+    }
+
     private Map<String, Object> createPaymentData(UUID orderId, String sessionId) {
         Map<String, Object> metadata = sessionId != null ? Map.of("sessionId", sessionId) : null;
         Map<String, Object> objectMap = new HashMap<>();
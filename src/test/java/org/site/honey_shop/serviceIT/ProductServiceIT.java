@@ -5,8 +5,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.site.honey_shop.TestContainerConfig;
 import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.OrderItem;
 import org.site.honey_shop.entity.Product;
 import org.site.honey_shop.exception.DeleteProductException;
+import org.site.honey_shop.exception.OrderCreateException;
 import org.site.honey_shop.repository.CategoryRepository;
 import org.site.honey_shop.repository.ProductRepository;
 import org.site.honey_shop.service.CategoryService;
@@ -171,18 +173,36 @@ class ProductServiceIT extends TestContainerConfig {
     }
 
     @Test
-    void testUpdateStockForReduction() {
+    void testReserveStock() {
         Product product = buildSampleProduct();
         MockMultipartFile image = new MockMultipartFile("image", "image.jpg", "image/jpeg", "test image".getBytes(StandardCharsets.UTF_8));
         productService.createProduct(product, List.of(image), "0");
         Product fromDb = productRepository.findAll().getFirst();
 
-        productService.updateStockForReduction(fromDb, 10);
+        productService.reserveStock(List.of(
+                OrderItem.builder().product(fromDb).quantity(6).build(),
+                OrderItem.builder().product(fromDb).quantity(4).build()));
 
         Product updated = productRepository.findById(fromDb.getProductId()).get();
         assertThat(updated.getStockQuantity()).isEqualTo(90);
     }
 
+    @Test
+    void testReserveStock_insufficientStock_throwsAndKeepsStock() {
+        Product product = buildSampleProduct();
+        MockMultipartFile image = new MockMultipartFile("image", "image.jpg", "image/jpeg", "test image".getBytes(StandardCharsets.UTF_8));
+        productService.createProduct(product, List.of(image), "0");
+        Product fromDb = productRepository.findAll().getFirst();
+
+        assertThatThrownBy(() -> productService.reserveStock(List.of(
+                OrderItem.builder().product(fromDb).quantity(101).build())))
+                .isInstanceOf(OrderCreateException.class)
+                .hasMessageContaining("Недостаточно остатков товара");
+
+        Product unchanged = productRepository.findById(fromDb.getProductId()).get();
+        assertThat(unchanged.getStockQuantity()).isEqualTo(100);
+    }
+
     @Test
     void testUpdateStockForAddition() {
         Product product = buildSampleProduct();
@@ -0,0 +1,131 @@
+package org.site.honey_shop.serviceIT;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.TestContainerConfig;
+import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.Product;
+import org.site.honey_shop.repository.CategoryRepository;
+import org.site.honey_shop.repository.ProductRepository;
+import org.site.honey_shop.service.MainPageService;
+import org.site.honey_shop.service.ProductService;
+import org.site.honey_shop.service.ShowcaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ShowcaseFetchPlanIT extends TestContainerConfig {
+
+    private static final int CATEGORIES = 4;
+    private static final int PRODUCTS_PER_CATEGORY = 6;
+
+    @Autowired
+    private MainPageService mainPageService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ShowcaseService showcaseService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = categoryRepository.save(Category.builder()
+                    .name("Категория " + c)
+                    .visible(true)
+                    .showcaseOrder(c)
+                    .build());
+            for (int p = 0; p < PRODUCTS_PER_CATEGORY; p++) {
+                productRepository.save(createProduct("Продукт " + c + "-" + p, category, p));
+            }
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testShowcaseSnapshot_loadsInTwoStatements() {
+        var snapshot = mainPageService.refreshShowcaseSnapshot();
+
+        assertThat(snapshot.categorizedProducts()).hasSize(CATEGORIES);
+        snapshot.categorizedProducts().values()
+                .forEach(products -> assertThat(products).hasSize(PRODUCTS_PER_CATEGORY)
+                        .allSatisfy(product -> assertThat(product.getImages()).hasSize(2)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testShowcaseAdminPage_loadsInTwoStatements() {
+        List<Category> categories = showcaseService.getShowcase();
+        List<Product> products = productRepository.findAllByCategoryIsNotNullOrderByShowcaseOrderAsc();
+
+        assertThat(categories).hasSize(CATEGORIES);
+        assertThat(products).hasSize(CATEGORIES * PRODUCTS_PER_CATEGORY)
+                .allSatisfy(product -> {
+                    assertThat(product.getCategory().getName()).startsWith("Категория");
+                    assertThat(product.getImages()).hasSize(2);
+                });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testGetAllProducts_loadsPageInBoundedStatements() {
+        Page<Product> page = productService.getAllProducts(PageRequest.of(0, 10, Sort.by("updateDate").descending()));
+
+        assertThat(page.getContent()).hasSize(10)
+                .allSatisfy(product -> {
+                    assertThat(product.getCategory().getName()).startsWith("Категория");
+                    assertThat(product.getImages()).hasSize(2);
+                });
+        assertThat(page.getTotalElements()).isEqualTo(CATEGORIES * PRODUCTS_PER_CATEGORY);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    private Product createProduct(String name, Category category, int showcaseOrder) {
+        return Product.builder()
+                .name(name)
+                .shortDescription("Кратко")
+                .description("Описание")
+                .price(new BigDecimal("100.00"))
+                .length(10.0)
+                .width(5.0)
+                .height(2.0)
+                .weight(1.0)
+                .stockQuantity(10)
+                .images(new ArrayList<>(List.of("img1.jpg", "img2.jpg")))
+                .category(category)
+                .showcaseOrder(showcaseOrder)
+                .showInShowcase(true)
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package org.site.honey_shop.serviceIT;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.TestContainerConfig;
+import org.site.honey_shop.entity.Category;
+import org.site.honey_shop.entity.Order;
+import org.site.honey_shop.entity.Product;
+import org.site.honey_shop.exception.OrderCreateException;
+import org.site.honey_shop.repository.CategoryRepository;
+import org.site.honey_shop.repository.OrderRepository;
+import org.site.honey_shop.repository.ProductRepository;
+import org.site.honey_shop.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationIT extends TestContainerConfig {
+
+    private static final int THREADS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentCheckouts_neverOversell() throws Exception {
+        Product product = createProduct(150);
+
+        ConcurrentResult result = checkoutConcurrently(product, 1);
+
+        assertThat(result.succeeded().get()).isEqualTo(150);
+        assertThat(result.rejected().get()).isEqualTo(THREADS - 150);
+        assertThat(result.unexpected()).isEmpty();
+        assertThat(productRepository.findById(product.getProductId()).orElseThrow().getStockQuantity()).isZero();
+        assertThat(orderRepository.count()).isEqualTo(150);
+    }
+
+    @Test
+    void testConcurrentCheckouts_noLostUpdates() throws Exception {
+        Product product = createProduct(500);
+
+        ConcurrentResult result = checkoutConcurrently(product, 2);
+
+        assertThat(result.succeeded().get()).isEqualTo(THREADS);
+        assertThat(result.unexpected()).isEmpty();
+        assertThat(productRepository.findById(product.getProductId()).orElseThrow().getStockQuantity())
+                .isEqualTo(500 - THREADS * 2);
+    }
+
+    private ConcurrentResult checkoutConcurrently(Product product, int quantity) throws InterruptedException {
+        String json = "[{\"product\":{\"productId\":\"" + product.getProductId() + "\"},\"quantity\":" + quantity + ",\"pricePerUnit\":10.00}]";
+        ConcurrentResult result = new ConcurrentResult(new AtomicInteger(), new AtomicInteger(), new ConcurrentLinkedQueue<>());
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.save(createSampleOrder(), json);
+                    result.succeeded().incrementAndGet();
+                } catch (OrderCreateException e) {
+                    result.rejected().incrementAndGet();
+                } catch (Exception e) {
+                    result.unexpected().add(e);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        return result;
+    }
+
+    private Product createProduct(int stock) {
+        Category category = categoryRepository.save(Category.builder().name("Мёд").visible(true).build());
+        return productRepository.save(Product.builder()
+                .name("Мёд гречишный")
+                .shortDescription("Кратко")
+                .description("Описание")
+                .price(new BigDecimal("10.00"))
+                .length(10.0)
+                .width(5.0)
+                .height(3.0)
+                .weight(0.5)
+                .images(new ArrayList<>())
+                .category(category)
+                .stockQuantity(stock)
+                .build());
+    }
+
+    private Order createSampleOrder() {
+        return Order.builder()
+                .firstName("Иван")
+                .lastName("Иванов")
+                .customerEmail("ivan@example.com")
+                .deliveryAddress("ул. Ленина, 1")
+                .customerPhone("+7 (999) 123-45-67")
+                .productAmount(BigDecimal.TEN)
+                .deliveryAmount(BigDecimal.ONE)
+                .totalOrderAmount(BigDecimal.valueOf(11))
+                .personalDataConsent(true)
+                .deliveryType("PVZ")
+                .build();
+    }
+
+    private record ConcurrentResult(AtomicInteger succeeded, AtomicInteger rejected, ConcurrentLinkedQueue<Exception> unexpected) {}
+}
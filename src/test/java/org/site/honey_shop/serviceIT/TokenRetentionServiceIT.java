@@ -0,0 +1,65 @@
+package org.site.honey_shop.serviceIT;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.site.honey_shop.TestContainerConfig;
+import org.site.honey_shop.entity.Token;
+import org.site.honey_shop.repository.TokenRepository;
+import org.site.honey_shop.service.TokenRetentionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "token.retention.chunk-size=2")
+@ActiveProfiles("test")
+class TokenRetentionServiceIT extends TestContainerConfig {
+
+    @Autowired
+    private TokenRetentionService tokenRetentionService;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        tokenRepository.deleteAll();
+    }
+
+    @Test
+    void testPurgeTokens_removesExpiredAndInvalidatedRows() {
+        Token active = save("active", true);
+        Token invalidated = save("invalidated", false);
+        for (int i = 0; i < 5; i++) {
+            Token expired = save("expired" + i, true);
+            jdbcTemplate.update("UPDATE tokens SET create_date = ? WHERE token_id = ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusDays(8)), expired.getTokenId());
+        }
+
+        int purged = tokenRetentionService.purgeTokens();
+
+        assertThat(purged).isEqualTo(6);
+        assertThat(tokenRepository.findAll()).extracting(Token::getTokenId).containsExactly(active.getTokenId());
+        assertThat(tokenRepository.findById(invalidated.getTokenId())).isEmpty();
+        assertThat(tokenRepository.countTokens()).isEqualTo(1);
+        assertThat(tokenRepository.tokensTableSizeBytes()).isPositive();
+    }
+
+    private Token save(String suffix, boolean refreshValid) {
+        return tokenRepository.save(Token.builder()
+                .username("user")
+                .accessToken("access-" + suffix)
+                .isAccessTokenValid(refreshValid)
+                .refreshToken("refresh-" + suffix)
+                .isRefreshTokenValid(refreshValid)
+                .build());
+    }
+}